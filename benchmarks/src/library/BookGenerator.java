@@ -0,0 +1,79 @@
+package library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BookGenerator makes reproducible synthetic books for benchmarks.
+ * 
+ * Titles and author names are built from small word pools, so that keyword
+ * queries match several books and some books share a title and author but
+ * differ in year.
+ */
+public class BookGenerator {
+
+    private static final String[] TITLE_WORDS = {
+        "The", "Structure", "Interpretation", "Computer", "Programs", "Software", "Construction",
+        "Art", "Programming", "Introduction", "Algorithms", "Java", "Design", "Patterns", "Home"
+    };
+    private static final String[] NAMES = {
+        "Harold", "Abelson", "Gerald", "Sussman", "Donald", "Knuth", "Thomas", "Cormen",
+        "Charles", "Leiserson", "Ronald", "Rivest", "Barbara", "Liskov", "Joshua", "Bloch"
+    };
+
+    private final Random random;
+
+    /**
+     * Make a generator.
+     * @param seed random seed; the same seed always produces the same books
+     */
+    public BookGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return a title made of one to four title words
+     */
+    public String title() {
+        return join(TITLE_WORDS, 1 + random.nextInt(4));
+    }
+
+    /**
+     * @return an author name made of a first and last name
+     */
+    public String author() {
+        return join(NAMES, 2);
+    }
+
+    /**
+     * @return a random book with one or two authors
+     */
+    public Book book() {
+        List<String> authors = random.nextBoolean()
+                ? Arrays.asList(author())
+                : Arrays.asList(author(), author());
+        return new Book(title(), authors, 1950 + random.nextInt(70));
+    }
+
+    /**
+     * @param count number of books
+     * @return count random books, possibly including duplicates
+     */
+    public List<Book> books(int count) {
+        List<Book> books = new ArrayList<Book>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(book());
+        }
+        return books;
+    }
+
+    private String join(String[] pool, int count) {
+        StringBuilder sb = new StringBuilder(pool[random.nextInt(pool.length)]);
+        for (int i = 1; i < count; i++) {
+            sb.append(' ').append(pool[random.nextInt(pool.length)]);
+        }
+        return sb.toString();
+    }
+}
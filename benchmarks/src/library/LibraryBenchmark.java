@@ -0,0 +1,81 @@
+package library;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the Library implementations holding size book copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibraryBenchmark {
+
+    @Param({ "library.SmallLibrary", "library.BigLibrary" })
+    public String implementationClassName;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    private BookGenerator generator;
+    private Library library;
+    private List<Book> books;
+    private BookCopy[] copies;
+    private String[] queries;
+    private int next;
+
+    // rebuilt every iteration so that buy() doesn't grow the library without bound
+    @Setup(Level.Iteration)
+    public void setup() throws ReflectiveOperationException {
+        generator = new BookGenerator(seed);
+        library = (Library) Class.forName(implementationClassName).getDeclaredConstructor().newInstance();
+        books = generator.books(size);
+        copies = new BookCopy[size];
+        for (int i = 0; i < size; i++) {
+            copies[i] = library.buy(books.get(i));
+        }
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            Book book = books.get(i % size);
+            queries[i] = i % 2 == 0 ? book.getTitle() : book.getAuthors().get(0);
+        }
+    }
+
+    @Benchmark
+    public BookCopy buy() {
+        return library.buy(books.get(next++ % size));
+    }
+
+    // checks the copy back in so that every invocation starts from the same state
+    @Benchmark
+    public boolean checkoutCheckin() {
+        BookCopy copy = copies[next++ % size];
+        library.checkout(copy);
+        library.checkin(copy);
+        return library.isAvailable(copy);
+    }
+
+    @Benchmark
+    public List<Book> find() {
+        return library.find(queries[next++ % queries.length]);
+    }
+}
@@ -0,0 +1,69 @@
+package twitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for Extract over size synthetic tweets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    private List<Tweet> tweets;
+
+    @Setup
+    public void setup() {
+        tweets = new TweetGenerator(seed, size).tweets(size);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> getHashtagUsers() {
+        return Extract.getHashtagUsers(tweets);
+    }
+
+    @Benchmark
+    public HashtagUsers getHashtagUserCounts() {
+        return Extract.getHashtagUserCounts(tweets, 0.01, 100);
+    }
+
+    @Benchmark
+    public List<String> trendingHashtags() {
+        return new TrendingHashtags(Duration.ofMinutes(15), 15).addAll(tweets).top(10);
+    }
+
+    @Benchmark
+    public List<String> sketchedTrendingHashtags() {
+        return TrendingHashtags.sketched(Duration.ofMinutes(15), 15, 0.001, 0.01, 100).addAll(tweets).top(10);
+    }
+}
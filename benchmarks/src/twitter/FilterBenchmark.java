@@ -0,0 +1,188 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for Filter over size synthetic tweets. Run with -prof gc to see
+ * the bytes allocated per operation as well as the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    // threads for the parallel filters
+    @Param({ "4" })
+    public int threads;
+
+    private List<Tweet> tweets;
+    private List<String> words;
+    private List<String> watchList;
+    private List<String> commonWords;
+    private TweetIndex index;
+    private TweetTimeIndex timeIndex;
+    private Timespan timespan;
+    private String author;
+    private UserRegistry users;
+    private AuthorIndex authorIndex;
+    private TweetQuery query;
+    private ForkJoinPool pool;
+    private TweetTextArena arena;
+
+    @Setup
+    public void setup() {
+        TweetGenerator generator = new TweetGenerator(seed, size);
+        tweets = generator.tweets(size);
+        words = Arrays.asList(generator.word(), generator.word(), "nosuchword");
+        // words that nearly every tweet contains
+        commonWords = Arrays.asList("the", "talk", "is", "in", "so", "java", "spec", "bug");
+        // a long watch list, mostly of words that never occur
+        watchList = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            watchList.add(i % 50 == 0 ? generator.word() : "watch" + i);
+        }
+        index = new TweetIndex(tweets);
+        timeIndex = new TweetTimeIndex(tweets);
+        // the middle tenth of the tweets
+        timespan = new Timespan(tweets.get(size * 9 / 20).getTimestamp(), tweets.get(size * 11 / 20).getTimestamp());
+        author = generator.username();
+        authorIndex = new AuthorIndex(tweets);
+        query = TweetQuery.by(author).in(timespan).containing(words);
+        pool = new ForkJoinPool(threads);
+        arena = new TweetTextArena();
+        for (Tweet tweet : tweets) {
+            arena.add(tweet.getText());
+        }
+        users = new UserRegistry();
+        for (Tweet tweet : tweets) {
+            users.id(tweet.getAuthor());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy() {
+        return Filter.writtenBy(tweets, author);
+    }
+
+    @Benchmark
+    public List<Tweet> parallelWrittenBy() {
+        return Filter.writtenBy(tweets, author, pool);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenById() {
+        return Filter.writtenBy(tweets, users.id(author), users);
+    }
+
+    @Benchmark
+    public List<Tweet> containing() {
+        return Filter.containing(tweets, words);
+    }
+
+    @Benchmark
+    public int[] arenaContaining() {
+        return arena.containing(words);
+    }
+
+    @Benchmark
+    public List<Tweet> containingManyMatches() {
+        return Filter.containing(tweets, commonWords);
+    }
+
+    // containing as it was, through a HashSet, to compare allocation with
+    @Benchmark
+    public List<Tweet> containingManyMatchesViaHashSet() {
+        WordMatcher matcher = new WordMatcher(commonWords);
+        Set<Tweet> containing = new HashSet<Tweet>();
+        for (Tweet tweet : tweets) {
+            if (matcher.matches(tweet.getText())) {
+                containing.add(tweet);
+            }
+        }
+        return new ArrayList<Tweet>(containing);
+    }
+
+    @Benchmark
+    public List<Tweet> parallelContaining() {
+        return Filter.containing(tweets, words, pool);
+    }
+
+    @Benchmark
+    public List<Tweet> containingWatchList() {
+        return Filter.containing(tweets, watchList);
+    }
+
+    @Benchmark
+    public List<Tweet> indexedContaining() {
+        return Filter.containing(index, words);
+    }
+
+    @Benchmark
+    public List<Tweet> chainedFilters() {
+        return Filter.containing(Filter.inTimespan(Filter.writtenBy(tweets, author), timespan), words);
+    }
+
+    @Benchmark
+    public List<Tweet> query() {
+        return query.stream(tweets).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Tweet> indexedQuery() {
+        return query.stream(authorIndex, timeIndex, index).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public TweetIndex buildIndex() {
+        return new TweetIndex(tweets);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan() {
+        return Filter.inTimespan(tweets, timespan);
+    }
+
+    @Benchmark
+    public List<Tweet> parallelInTimespan() {
+        return Filter.inTimespan(tweets, timespan, pool);
+    }
+
+    @Benchmark
+    public List<Tweet> indexedInTimespan() {
+        return Filter.inTimespan(timeIndex, timespan);
+    }
+}
@@ -0,0 +1,68 @@
+package twitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling benchmark for building the follows graph from size synthetic tweets,
+ * up to 10M tweets. The tweets are generated once per trial and held in memory,
+ * so the largest size needs a big heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx12g" })
+public class FollowsGraphBenchmark {
+
+    @Param({ "10000", "100000", "1000000", "10000000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    // threads for the parallel build
+    @Param({ "4" })
+    public int threads;
+
+    private List<Tweet> tweets;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        tweets = new TweetGenerator(seed, size).tweets(size);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> build() {
+        return new FollowsGraphBuilder().addAll(tweets).build();
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> parallelBuild() {
+        return SocialNetwork.guessFollowsGraph(tweets, pool);
+    }
+}
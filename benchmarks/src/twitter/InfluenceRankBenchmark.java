@@ -0,0 +1,96 @@
+package twitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling benchmark for InfluenceRank over a synthetic follows graph of users
+ * users, each following degree others chosen with a skew towards low ids, so
+ * follower counts are heavy-tailed as in real networks. (Graphs guessed from
+ * TweetGenerator tweets are nearly complete, which PageRank solves in one
+ * iteration.) Ranks from equal scores, and warm-started from the scores of
+ * the same graph with about a tenth of its edges missing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx12g" })
+public class InfluenceRankBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int users;
+
+    @Param({ "10" })
+    public int degree;
+
+    @Param({ "6005" })
+    public long seed;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    private FollowsGraph graph;
+    private InfluenceRank.Scores previous;
+    private InfluenceRank rank;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(seed);
+        Map<String, Set<String>> after = new HashMap<String, Set<String>>(users * 4 / 3 + 1);
+        Map<String, Set<String>> before = new HashMap<String, Set<String>>(users * 4 / 3 + 1);
+        for (int user = 0; user < users; user++) {
+            Set<String> follows = new HashSet<String>();
+            Set<String> followedBefore = new HashSet<String>();
+            for (int i = 0; i < degree; i++) {
+                double skew = random.nextDouble();
+                String followed = "user" + (int) (users * skew * skew * skew);
+                follows.add(followed);
+                if (random.nextInt(10) != 0) {
+                    followedBefore.add(followed);
+                }
+            }
+            after.put("user" + user, follows);
+            before.put("user" + user, followedBefore);
+        }
+        pool = new ForkJoinPool(threads);
+        rank = new InfluenceRank();
+        graph = FollowsGraph.fromMap(after);
+        previous = rank.rank(FollowsGraph.fromMap(before), null, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public InfluenceRank.Scores cold() {
+        return rank.rank(graph, null, pool);
+    }
+
+    @Benchmark
+    public InfluenceRank.Scores warm() {
+        return rank.rank(graph, previous, pool);
+    }
+}
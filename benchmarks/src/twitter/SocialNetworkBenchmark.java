@@ -0,0 +1,90 @@
+package twitter;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for SocialNetwork over size synthetic tweets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocialNetworkBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    private List<Tweet> tweets;
+    private Map<String, Set<String>> followsGraph;
+    private FollowsGraph graph;
+    private IncrementalSocialNetwork network;
+
+    @Setup
+    public void setup() {
+        tweets = new TweetGenerator(seed, size).tweets(size);
+        followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        graph = FollowsGraph.fromMap(followsGraph);
+        network = new IncrementalSocialNetwork().addAll(tweets);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public Map<Integer, BitSet> guessFollowsGraphIds() {
+        return SocialNetwork.guessFollowsGraph(tweets, new UserRegistry());
+    }
+
+    @Benchmark
+    public List<String> influencers() {
+        return SocialNetwork.influencers(followsGraph);
+    }
+
+    @Benchmark
+    public FollowsGraph fromMap() {
+        return FollowsGraph.fromMap(followsGraph);
+    }
+
+    @Benchmark
+    public List<String> graphInfluencers() {
+        return SocialNetwork.influencers(graph);
+    }
+
+    @Benchmark
+    public List<String> topInfluencers() {
+        return SocialNetwork.influencers(graph, 100);
+    }
+
+    @Benchmark
+    public IncrementalSocialNetwork incrementalBuild() {
+        return new IncrementalSocialNetwork().addAll(tweets);
+    }
+
+    @Benchmark
+    public List<String> incrementalInfluencers() {
+        return network.influencers(100);
+    }
+}
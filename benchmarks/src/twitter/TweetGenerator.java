@@ -0,0 +1,92 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TweetGenerator makes reproducible synthetic tweets for benchmarks.
+ * 
+ * Authors are drawn from a pool of about sqrt(n) users, so each author writes
+ * several tweets, and the texts mix ordinary words with @-mentions of other
+ * users in the pool and #hashtags drawn from a smaller pool of tags.
+ * Timestamps increase by up to a minute per tweet.
+ */
+public class TweetGenerator {
+
+    private static final Instant START = Instant.parse("2016-02-17T10:00:00Z");
+    private static final int MAX_TEXT_LENGTH = 140;
+    private static final String[] WORDS = {
+        "the", "rivest", "talk", "is", "in", "30", "minutes", "reasonable", "so", "much",
+        "obama", "software", "construction", "java", "Test", "spec", "MIT", "6.005", "bug", "fix"
+    };
+
+    private final Random random;
+    private final int users;
+    private final int hashtags;
+
+    /**
+     * Make a generator.
+     * @param seed random seed; the same seed and size always produce the same tweets
+     * @param size number of tweets that will be generated, used to size the user and hashtag pools
+     */
+    public TweetGenerator(long seed, int size) {
+        this.random = new Random(seed);
+        this.users = Math.max(2, (int) Math.sqrt(size));
+        this.hashtags = Math.max(1, users / 4);
+    }
+
+    /**
+     * @return a username from this generator's pool, in random case
+     */
+    public String username() {
+        String name = "user" + random.nextInt(users);
+        return random.nextInt(8) == 0 ? name.toUpperCase() : name;
+    }
+
+    /**
+     * @return a word that appears in generated tweets
+     */
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * @param count number of tweets
+     * @return count tweets with distinct ids 0..count-1, in increasing timestamp order
+     */
+    public List<Tweet> tweets(int count) {
+        List<Tweet> tweets = new ArrayList<Tweet>(count);
+        Instant time = START;
+        for (int id = 0; id < count; id++) {
+            time = time.plusSeconds(random.nextInt(60));
+            tweets.add(new Tweet(id, username(), text(), time));
+        }
+        return tweets;
+    }
+
+    private String text() {
+        StringBuilder text = new StringBuilder();
+        int words = 3 + random.nextInt(12);
+        for (int i = 0; i < words; i++) {
+            String next;
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                next = "@" + username();
+            } else if (kind == 1) {
+                next = "#tag" + random.nextInt(hashtags);
+            } else {
+                next = word();
+            }
+            if (text.length() + next.length() + 1 > MAX_TEXT_LENGTH) {
+                break;
+            }
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(next);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for Quadratic, solving size equations per invocation.
+ * About half of the equations, chosen at random, have integer roots, and the
+ * rest have none; setup solves each one to make sure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuadraticBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    @Param({ "6005" })
+    public long seed;
+
+    private int[] a, b, c;
+    private int[] roots;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(seed);
+        a = new int[size];
+        b = new int[size];
+        c = new int[size];
+        roots = new int[2];
+        for (int i = 0; i < size; i++) {
+            boolean rooted = random.nextBoolean();
+            // k(x - r1)(x - r2), with |k*r1*r2| <= 10^8 so every coefficient fits in an int;
+            // adding 1 to b usually leaves no integer root, and draws that still have one are redrawn
+            do {
+                int k = (random.nextInt(100) + 1) * (random.nextBoolean() ? 1 : -1);
+                int r1 = random.nextInt(2001) - 1000;
+                int r2 = random.nextInt(2001) - 1000;
+                a[i] = k;
+                b[i] = -k * (r1 + r2) + (rooted ? 0 : 1);
+                c[i] = k * r1 * r2;
+            } while ((Quadratic.roots(a[i], b[i], c[i], roots) > 0) != rooted);
+        }
+    }
+
+    @Benchmark
+    public void roots(Blackhole bh) {
+        for (int i = 0; i < size; i++) {
+            Set<Integer> result = Quadratic.roots(a[i], b[i], c[i]);
+            bh.consume(result);
+        }
+    }
+
+    @Benchmark
+    public int rootsPrimitive() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += Quadratic.roots(a[i], b[i], c[i], roots);
+        }
+        return total;
+    }
+}
@@ -3,6 +3,8 @@ package warmup;
 import java.math.BigInteger;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Quadratic {
 
@@ -14,43 +16,253 @@ public class Quadratic {
      * @return all integers x such that ax^2 + bx + c = 0.
      */
     public static Set<Integer> roots(int a, int b, int c) {
+        int[] found = new int[2];
+        int count = rootsInto(a, b, c, found, 0);
         Set<Integer> roots = new HashSet<Integer>();
-        
-        BigInteger big4 = BigInteger.valueOf(4);
-        BigInteger bigA = BigInteger.valueOf(a);
-        BigInteger bigB = BigInteger.valueOf(b);
-        BigInteger bigC = BigInteger.valueOf(c);
-        
-        BigInteger bigCalculationGroup1 = bigB.pow(2).subtract(big4.multiply(bigA).multiply(bigC)); // b*b - 4*a*c
-        BigInteger bigCalculationGroup2 = bigA.multiply(BigInteger.valueOf(2)); // 2*a
-        
-        long calculationGroup1 = bigCalculationGroup1.longValue();
-        long calculationGroup2 = bigCalculationGroup2.longValue();
-        
-        // can't divide by 0;
-        if (calculationGroup2 == 0) {
-            roots.add(-c / b);
-        } else if (calculationGroup1 >= 0) { // can't sqrt(negative)
-            int r1 = (int) ((-b + Math.sqrt(calculationGroup1)) / calculationGroup2);
-            int r2 = (int) ((-b - Math.sqrt(calculationGroup1)) / calculationGroup2);
-            // verify calculation
-            if (isValidRoot(a, b, c, r1)) { roots.add(r1); }
-            if (isValidRoot(a, b, c, r2)) { roots.add(r2); }
-
-        }
-        
+        for (int i = 0; i < count; i++) {
+            roots.add(found[i]);
+        }
         return roots;
-        
     }
 
-    private static boolean isValidRoot(int a, int b, int c, int x) {
-        BigInteger bigA = BigInteger.valueOf(a);
-        BigInteger bigB = BigInteger.valueOf(b);
-        BigInteger bigC = BigInteger.valueOf(c);
-        BigInteger bigX = BigInteger.valueOf(x);
-        
-        BigInteger result = bigA.multiply(bigX.pow(2)).add(bigB.multiply(bigX)).add(bigC); // ax^2 + bx + c
-        return result.compareTo(BigInteger.ZERO) == 0;
+    /**
+     * Find the integer roots of a quadratic equation, ax^2 + bx + c = 0, without
+     * allocating any objects, for callers that solve many equations in a loop.
+     * @param a coefficient of x^2
+     * @param b coefficient of x
+     * @param c constant term.  Requires that a, b, and c are not ALL zero.
+     * @param roots array that receives the roots in ascending order.  Requires roots.length >= 2.
+     * @return the number of distinct integer roots written to roots, 0, 1, or 2.
+     */
+    public static int roots(int a, int b, int c, int[] roots) {
+        return rootsInto(a, b, c, roots, 0);
+    }
+
+    /**
+     * Find the integer roots of many quadratic equations, a[i]x^2 + b[i]x + c[i] = 0.
+     * The roots of equation i are written to values[offsets[i]] .. values[offsets[i+1] - 1]
+     * in ascending order, so the whole batch is stored in two flat arrays.
+     * @param a coefficients of x^2
+     * @param b coefficients of x, same length as a
+     * @param c constant terms, same length as a.  Requires that a[i], b[i], and c[i] are not ALL zero.
+     * @param offsets receives the start of each equation's roots in values.  Requires offsets.length >= a.length + 1.
+     * @param values receives the roots.  Requires values.length >= 2 * a.length.
+     * @return the total number of roots written to values, equal to offsets[a.length]
+     */
+    public static int rootsBatch(int[] a, int[] b, int[] c, int[] offsets, int[] values) {
+        checkBatch(a, b, c, offsets, values);
+        int n = a.length;
+        int next = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = next;
+            next += rootsInto(a[i], b[i], c[i], values, next);
+        }
+        offsets[n] = next;
+        return next;
+    }
+
+    /**
+     * Same as {@link #rootsBatch(int[], int[], int[], int[], int[])}, but splits the
+     * batch across the threads of a fork/join pool.
+     * @param pool pool to run the batch in
+     */
+    public static int rootsBatch(int[] a, int[] b, int[] c, int[] offsets, int[] values, ForkJoinPool pool) {
+        checkBatch(a, b, c, offsets, values);
+        int n = a.length;
+        // each equation first writes into its own two slots, values[2i] and values[2i+1],
+        // and its root count into offsets[i+1], so the tasks never share an index
+        pool.invoke(new BatchTask(a, b, c, offsets, values, 0, n));
+
+        // prefix-sum the counts and compact the roots in place; the destination
+        // offsets[i] never passes the source 2i, so nothing is overwritten before it is read
+        int next = 0;
+        for (int i = 0; i < n; i++) {
+            int count = offsets[i + 1];
+            offsets[i] = next;
+            for (int j = 0; j < count; j++) {
+                values[next + j] = values[2 * i + j];
+            }
+            next += count;
+        }
+        offsets[n] = next;
+        return next;
+    }
+
+    private static void checkBatch(int[] a, int[] b, int[] c, int[] offsets, int[] values) {
+        int n = a.length;
+        if (b.length != n || c.length != n) {
+            throw new IllegalArgumentException("coefficient arrays must have the same length");
+        }
+        if (offsets.length < n + 1 || values.length < 2 * n) {
+            throw new IllegalArgumentException("offsets needs n+1 and values needs 2n elements for n equations");
+        }
+    }
+
+    /**
+     * Solves equations [from, to) of a batch, writing each equation's roots to
+     * values[2i..2i+1] and its root count to offsets[i+1].
+     */
+    private static class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // equations per leaf task, large enough to amortize the fork
+        private static final int THRESHOLD = 1 << 14;
+
+        private final int[] a, b, c, offsets, values;
+        private final int from, to;
+
+        BatchTask(int[] a, int[] b, int[] c, int[] offsets, int[] values, int from, int to) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.offsets = offsets;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    offsets[i + 1] = rootsInto(a[i], b[i], c[i], values, 2 * i);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(a, b, c, offsets, values, from, mid),
+                          new BatchTask(a, b, c, offsets, values, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Write the integer roots of ax^2 + bx + c = 0 into out, starting at offset,
+     * in ascending order.  Requires out.length >= offset + 2.
+     * @return the number of roots written
+     */
+    static int rootsInto(int a, int b, int c, int[] out, int offset) {
+        if (a == 0) {
+            // linear: bx + c = 0 has an integer root only when b divides c
+            if (b == 0 || c % b != 0) {
+                return 0;
+            }
+            long root = -((long) c / b);
+            if (root < Integer.MIN_VALUE || root > Integer.MAX_VALUE) {
+                return 0;
+            }
+            out[offset] = (int) root;
+            return 1;
+        }
+
+        long sqrt;
+        long ac = (long) a * c;
+        if (ac <= MAX_SAFE_AC && ac >= -MAX_SAFE_AC) {
+            long discriminant = (long) b * b - 4 * ac;
+            if (discriminant < 0 || !maybeSquare(discriminant)) {
+                return 0;
+            }
+            sqrt = sqrt(discriminant);
+            if (sqrt * sqrt != discriminant) {
+                return 0; // irrational roots
+            }
+        } else {
+            // 4ac could overflow a long, so only here do we pay for BigInteger
+            BigInteger discriminant = BigInteger.valueOf(b).pow(2)
+                    .subtract(BigInteger.valueOf(4).multiply(BigInteger.valueOf(ac)));
+            if (discriminant.signum() < 0 || !maybeSquare(discriminant.longValue())) {
+                return 0;
+            }
+            BigInteger bigSqrt = sqrt(discriminant);
+            if (!bigSqrt.multiply(bigSqrt).equals(discriminant)) {
+                return 0;
+            }
+            sqrt = bigSqrt.longValue(); // discriminant < 2^65, so its root fits in a long
+        }
+
+        // roots are (-b -/+ sqrt) / 2a, integers only when 2a divides the numerator exactly
+        long twoA = 2L * a;
+        long low = -(long) b - sqrt;
+        long high = -(long) b + sqrt;
+        if (twoA < 0) {
+            long tmp = low;
+            low = -high;
+            high = -tmp;
+            twoA = -twoA;
+        }
+        int count = 0;
+        count += writeQuotient(low, twoA, out, offset + count);
+        if (sqrt != 0) {
+            count += writeQuotient(high, twoA, out, offset + count);
+        }
+        return count;
+    }
+
+    // |a*c| at or below this bound keeps b*b - 4*a*c well inside a long
+    private static final long MAX_SAFE_AC = 1L << 59;
+
+    // write numerator / denominator if it divides exactly and fits in an int
+    private static int writeQuotient(long numerator, long denominator, int[] out, int offset) {
+        if (numerator % denominator != 0) {
+            return 0;
+        }
+        long root = numerator / denominator;
+        if (root < Integer.MIN_VALUE || root > Integer.MAX_VALUE) {
+            return 0;
+        }
+        out[offset] = (int) root;
+        return 1;
+    }
+
+    /**
+     * Cheap test that rules out most non-squares before taking a square root:
+     * every perfect square is 0, 1, 4, or 9 mod 16.
+     * @param n the low bits of a nonnegative number
+     * @return false if n is certainly not a perfect square
+     */
+    private static boolean maybeSquare(long n) {
+        return ((1L << (n & 0xF)) & SQUARES_MOD_16) != 0;
+    }
+
+    // bit i is set iff i is a square mod 16
+    private static final long SQUARES_MOD_16 = (1L << 0) | (1L << 1) | (1L << 4) | (1L << 9);
+
+    /**
+     * Integer square root by Newton's method, without floating point.
+     * @param n number to take the root of.  Requires n >= 0.
+     * @return floor(sqrt(n))
+     */
+    static long sqrt(long n) {
+        if (n < 2) {
+            return n;
+        }
+        // start at a power of two no smaller than sqrt(n); from above, Newton's
+        // iterates decrease monotonically to floor(sqrt(n))
+        long x = 1L << ((64 - Long.numberOfLeadingZeros(n) + 1) / 2);
+        long y = (x + n / x) >>> 1;
+        while (y < x) {
+            x = y;
+            y = (x + n / x) >>> 1;
+        }
+        return x;
+    }
+
+    /**
+     * Integer square root by Newton's method, for numbers too big for a long.
+     * @param n number to take the root of.  Requires n >= 0.
+     * @return floor(sqrt(n))
+     */
+    static BigInteger sqrt(BigInteger n) {
+        if (n.bitLength() < 63) {
+            return BigInteger.valueOf(sqrt(n.longValue()));
+        }
+        BigInteger x = BigInteger.ONE.shiftLeft((n.bitLength() + 1) / 2);
+        BigInteger y = x.add(n.divide(x)).shiftRight(1);
+        while (y.compareTo(x) < 0) {
+            x = y;
+            y = x.add(n.divide(x)).shiftRight(1);
+        }
+        return x;
     }
 
     /**
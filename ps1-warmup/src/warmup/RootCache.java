@@ -0,0 +1,372 @@
+package warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RootCache is a bounded, thread-safe memo table in front of
+ * {@link Quadratic#roots(int, int, int)}, for workloads that solve the same
+ * equations over and over.
+ *
+ * The cache is split into segments, each guarded by its own lock. A segment
+ * stores its keys unboxed, as the pair (a and b packed into a long, c), in an
+ * open-addressing table, so a lookup allocates nothing. Results are immutable
+ * sets that are shared between callers.
+ */
+public class RootCache {
+
+    /**
+     * Which entry a full segment discards to make room for a new one.
+     */
+    public static enum Eviction {
+        /** discard the least recently used entry */
+        LRU,
+        /** discard the least frequently used of a small random sample of entries */
+        LFU
+    }
+
+    private static final int DEFAULT_CONCURRENCY = 16;
+
+    // smaller segments would start evicting long before the whole cache is full
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final Eviction eviction;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // rep invariant:
+    //    segments.length is a power of two, and the segment capacities sum to capacity
+    //    every cached entry for (a, b, c) is in segments[segmentFor(hash(a, b, c))]
+    // abstraction function:
+    //    represents the memo table mapping each cached (a, b, c) to roots(a, b, c),
+    //      with hits, misses, and evictions counting lookups since construction
+    // safety from rep exposure argument:
+    //    all fields are private; the returned sets are unmodifiable
+
+    /**
+     * Make a cache.
+     * @param capacity maximum number of equations to remember.  Requires capacity >= 1.
+     * @param eviction policy for choosing which entry to discard when the cache is full
+     */
+    public RootCache(int capacity, Eviction eviction) {
+        this(capacity, eviction, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Make a cache.
+     * @param capacity maximum number of equations to remember.  Requires capacity >= 1.
+     * @param eviction policy for choosing which entry to discard when the cache is full
+     * @param concurrencyLevel expected number of threads using the cache at once.
+     *        The cache is split into at most this many independently locked segments
+     *        of at least 64 entries each, and eviction order is kept per segment.
+     *        Requires concurrencyLevel >= 1.
+     */
+    public RootCache(int capacity, Eviction eviction, int concurrencyLevel) {
+        if (capacity < 1 || concurrencyLevel < 1) {
+            throw new IllegalArgumentException("capacity and concurrencyLevel must be positive");
+        }
+        this.capacity = capacity;
+        this.eviction = eviction;
+        int count = Integer.highestOneBit(Math.max(1, Math.min(capacity / MIN_SEGMENT_CAPACITY, concurrencyLevel)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+        checkRep();
+    }
+
+    // assert the rep invariant
+    private void checkRep() {
+        assert Integer.bitCount(segments.length) == 1;
+        int total = 0;
+        for (Segment segment : segments) {
+            total += segment.capacity;
+        }
+        assert total == capacity;
+    }
+
+    /**
+     * Find the integer roots of ax^2 + bx + c = 0, as {@link Quadratic#roots(int, int, int)}
+     * does, reusing the result of an earlier call with the same coefficients if it is
+     * still cached.
+     * @param a coefficient of x^2
+     * @param b coefficient of x
+     * @param c constant term.  Requires that a, b, and c are not ALL zero.
+     * @return unmodifiable set of all integers x such that ax^2 + bx + c = 0.
+     */
+    public Set<Integer> roots(int a, int b, int c) {
+        long ab = ((long) a << 32) | (b & 0xFFFFFFFFL);
+        int hash = hash(ab, c);
+        Segment segment = segmentFor(hash);
+        Set<Integer> roots = segment.get(ab, c, hash);
+        if (roots != null) {
+            hits.increment();
+            return roots;
+        }
+        misses.increment();
+        // solve outside the lock; if another thread raced us here, either answer is the same
+        roots = immutable(Quadratic.roots(a, b, c));
+        return segment.put(ab, c, hash, roots);
+    }
+
+    /**
+     * @return maximum number of equations this cache remembers
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of equations currently cached
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return number of calls to roots() answered from the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of calls to roots() that had to solve the equation
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries discarded to make room for new ones
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Discard every cached entry and reset the counters.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "RootCache(" + eviction + ", size=" + size() + "/" + capacity
+                + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", evictions=" + evictionCount() + ")";
+    }
+
+    // segments are chosen by the high bits of the hash, table slots by the low bits
+    private Segment segmentFor(int hash) {
+        int bits = Integer.numberOfTrailingZeros(segments.length);
+        return bits == 0 ? segments[0] : segments[hash >>> (32 - bits)];
+    }
+
+    // share one instance per shape of result, copying only two-root sets
+    private static Set<Integer> immutable(Set<Integer> roots) {
+        switch (roots.size()) {
+        case 0:
+            return Collections.emptySet();
+        case 1:
+            return Collections.singleton(roots.iterator().next());
+        default:
+            return Collections.unmodifiableSet(roots);
+        }
+    }
+
+    private static int hash(long ab, int c) {
+        long h = ab * 0x9E3779B97F4A7C15L + c * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * One independently locked part of the cache: an open-addressing table of
+     * slots pointing into parallel entry arrays, plus the bookkeeping for eviction.
+     */
+    private class Segment {
+
+        private static final int EMPTY = -1;
+        private static final int LFU_SAMPLE = 8;
+
+        private final int capacity;
+        private final int mask;
+        private final int[] table;          // slot -> entry index, or EMPTY
+        private final long[] abs;           // entry -> packed a and b
+        private final int[] cs;             // entry -> c
+        private final int[] hashes;         // entry -> hash
+        private final Object[] values;      // entry -> Set<Integer> of roots
+        private final int[] prev, next;     // LRU list from head (most recent) to tail
+        private final int[] frequencies;    // LFU hit counts
+        private int head = EMPTY, tail = EMPTY;
+        private int size;
+        private int sampleSeed = 1;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+            this.mask = tableSize - 1;
+            this.table = new int[tableSize];
+            Arrays.fill(table, EMPTY);
+            this.abs = new long[capacity];
+            this.cs = new int[capacity];
+            this.hashes = new int[capacity];
+            this.values = new Object[capacity];
+            this.prev = new int[capacity];
+            this.next = new int[capacity];
+            this.frequencies = new int[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized Set<Integer> get(long ab, int c, int hash) {
+            int slot = find(ab, c, hash);
+            if (slot < 0) {
+                return null;
+            }
+            int entry = table[slot];
+            touch(entry);
+            return (Set<Integer>) values[entry];
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized Set<Integer> put(long ab, int c, int hash, Set<Integer> roots) {
+            int slot = find(ab, c, hash);
+            if (slot >= 0) {
+                return (Set<Integer>) values[table[slot]];
+            }
+            int entry;
+            if (size < capacity) {
+                entry = size++;
+            } else {
+                entry = eviction == Eviction.LRU ? tail : leastFrequent();
+                unlink(entry);
+                remove(entry);
+                evictions.increment();
+            }
+            abs[entry] = ab;
+            cs[entry] = c;
+            hashes[entry] = hash;
+            values[entry] = roots;
+            frequencies[entry] = 0;
+            linkFirst(entry);
+            insert(entry);
+            return roots;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, EMPTY);
+            Arrays.fill(values, null);
+            head = tail = EMPTY;
+            size = 0;
+        }
+
+        // slot holding (ab, c), or -1 if absent
+        private int find(long ab, int c, int hash) {
+            for (int slot = hash & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+                int entry = table[slot];
+                if (abs[entry] == ab && cs[entry] == c) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void insert(int entry) {
+            int slot = hashes[entry] & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+
+        // delete entry's slot, shifting later slots of its probe run back so lookups still find them
+        private void remove(int entry) {
+            int slot = hashes[entry] & mask;
+            while (table[slot] != entry) {
+                slot = (slot + 1) & mask;
+            }
+            int gap = slot;
+            for (int i = (gap + 1) & mask; table[i] != EMPTY; i = (i + 1) & mask) {
+                int home = hashes[table[i]] & mask;
+                // move i into the gap unless its home lies cyclically in (gap, i]
+                boolean homeAfterGap = gap <= i ? (gap < home && home <= i) : (gap < home || home <= i);
+                if (!homeAfterGap) {
+                    table[gap] = table[i];
+                    gap = i;
+                }
+            }
+            table[gap] = EMPTY;
+        }
+
+        private void touch(int entry) {
+            if (eviction == Eviction.LRU) {
+                unlink(entry);
+                linkFirst(entry);
+            } else if (frequencies[entry] < Integer.MAX_VALUE) {
+                frequencies[entry]++;
+            }
+        }
+
+        private void linkFirst(int entry) {
+            prev[entry] = EMPTY;
+            next[entry] = head;
+            if (head != EMPTY) {
+                prev[head] = entry;
+            }
+            head = entry;
+            if (tail == EMPTY) {
+                tail = entry;
+            }
+        }
+
+        private void unlink(int entry) {
+            if (prev[entry] != EMPTY) {
+                next[prev[entry]] = next[entry];
+            } else {
+                head = next[entry];
+            }
+            if (next[entry] != EMPTY) {
+                prev[next[entry]] = prev[entry];
+            } else {
+                tail = prev[entry];
+            }
+        }
+
+        // least-hit entry among a pseudo-random sample of entries
+        private int leastFrequent() {
+            int victim = EMPTY;
+            for (int i = 0; i < Math.min(LFU_SAMPLE, size); i++) {
+                sampleSeed ^= sampleSeed << 13;
+                sampleSeed ^= sampleSeed >>> 17;
+                sampleSeed ^= sampleSeed << 5;
+                int entry = (sampleSeed & Integer.MAX_VALUE) % size;
+                if (victim == EMPTY || frequencies[entry] < frequencies[victim]) {
+                    victim = entry;
+                }
+            }
+            return victim;
+        }
+    }
+}
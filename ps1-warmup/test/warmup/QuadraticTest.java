@@ -1,9 +1,14 @@
 package warmup;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
@@ -28,6 +33,15 @@ public class QuadraticTest {
      *    absolute value of root is small or large (as close to Integer.MAX_VALUE as possible)
      * 
      * Each of these parts is covered by at least one test case below.
+     * 
+     * roots(a, b, c, int[]) is checked on the same partitions and on coefficients
+     * large enough to take the BigInteger path (|ac| > 2^59).  Both overloads are
+     * checked on discriminants above 2^53, and against a brute-force search and
+     * known roots on randomly generated equations from a fixed seed.
+     * 
+     * rootsBatch is checked against roots(a, b, c, int[]) equation by equation,
+     * for an empty batch and a random batch, both sequential and on a fork/join pool
+     * with a batch large enough to split.
      */
 
     @Test(expected=AssertionError.class)
@@ -79,6 +93,166 @@ public class QuadraticTest {
         assertEquals(makeSet(r1, r2), Quadratic.roots(1, -r1-r2, r1*r2));
     }
 
+    // covers primitive overload, 0, 1, and 2 roots, roots in ascending order
+    @Test
+    public void testPrimitiveRoots() {
+        int[] roots = new int[2];
+        assertEquals(2, Quadratic.roots(1, -(5+8), 5*8, roots));
+        assertEquals(Arrays.asList(5, 8), Arrays.asList(roots[0], roots[1]));
+        assertEquals(1, Quadratic.roots(1, -2*13, 13*13, roots));
+        assertEquals(13, roots[0]);
+        assertEquals(0, Quadratic.roots(1, -2, 2, roots));
+        assertEquals(1, Quadratic.roots(0, -5, 5*3, roots));
+        assertEquals(3, roots[0]);
+    }
+
+    // covers primitive overload with |ac| > 2^59, where 4ac would overflow a long
+    @Test
+    public void testPrimitiveRootsHugeCoefficients() {
+        assertEquals(makeSet(-1, 1), primitiveRoots(1 << 30, 0, -(1 << 30)));
+        assertEquals(makeSet(-1, 1), primitiveRoots(Integer.MAX_VALUE, 0, -Integer.MAX_VALUE));
+        assertEquals(makeSet(), primitiveRoots(Integer.MIN_VALUE, 0, Integer.MIN_VALUE));
+        assertEquals(makeSet(-2, 1), primitiveRoots(3 << 28, 3 << 28, -2 * (3 << 28)));
+    }
+
+    // covers primitive overload with b = Integer.MIN_VALUE, whose negation overflows an int
+    @Test
+    public void testPrimitiveRootsMinValueB() {
+        assertEquals(makeSet(1, Integer.MAX_VALUE), primitiveRoots(1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(makeSet(0), primitiveRoots(1, Integer.MIN_VALUE, 0));
+        assertEquals(makeSet(1), primitiveRoots(1 << 30, Integer.MIN_VALUE, 1 << 30));
+    }
+
+    // differential test: both overloads agree with a brute-force search on random equations
+    @Test
+    public void testRootsRandomized() {
+        Random random = new Random(6005);
+        for (int i = 0; i < 20_000; i++) {
+            int a = random.nextInt(2001) - 1000;
+            int b = random.nextInt(2001) - 1000;
+            int c = random.nextInt(2001) - 1000;
+            if (a == 0 && b == 0 && c == 0) {
+                continue;
+            }
+            Set<Integer> expected = bruteForceRoots(a, b, c);
+            String equation = "roots of " + a + "x^2 + " + b + "x + " + c;
+            assertEquals(equation, expected, Quadratic.roots(a, b, c));
+            assertEquals(equation, expected, primitiveRoots(a, b, c));
+        }
+    }
+
+    // differential test: both overloads find the roots that random equations were built from
+    @Test
+    public void testRootsRandomizedFromRoots() {
+        Random random = new Random(6005);
+        for (int i = 0; i < 100_000; i++) {
+            // k(x - r1)(x - r2), kept small enough that every coefficient fits in an int
+            int k = (random.nextInt(100) + 1) * (random.nextBoolean() ? 1 : -1);
+            int r1 = random.nextInt(4001) - 2000;
+            int r2 = random.nextInt(4001) - 2000;
+            int a = k, b = -k * (r1 + r2), c = k * r1 * r2;
+            String equation = "roots of " + a + "x^2 + " + b + "x + " + c;
+            assertEquals(equation, makeSet(r1, r2), Quadratic.roots(a, b, c));
+            assertEquals(equation, makeSet(r1, r2), primitiveRoots(a, b, c));
+        }
+    }
+
+    // covers discriminants above 2^53, where a double can't represent every integer
+    @Test
+    public void testRootsLargeDiscriminant() {
+        assertEquals(makeSet(0, 2_000_000_000), Quadratic.roots(1, -2_000_000_000, 0));
+        assertEquals(makeSet(100_000_000, -1), Quadratic.roots(1, -99_999_999, -100_000_000));
+        // discriminant is b^2 + 4, whose double square root rounds to exactly b
+        assertEquals(makeSet(), Quadratic.roots(1, 134_217_730, -1));
+    }
+
+    // covers integer square root at perfect squares, their neighbours, and beyond a long
+    @Test
+    public void testSqrt() {
+        assertEquals(0, Quadratic.sqrt(0));
+        assertEquals(1, Quadratic.sqrt(3));
+        assertEquals(2, Quadratic.sqrt(4));
+        long s = 3_037_000_499L; // floor(sqrt(Long.MAX_VALUE))
+        assertEquals(s, Quadratic.sqrt(Long.MAX_VALUE));
+        assertEquals(s, Quadratic.sqrt(s * s));
+        assertEquals(s - 1, Quadratic.sqrt(s * s - 1));
+        BigInteger big = BigInteger.ONE.shiftLeft(32).add(BigInteger.ONE);
+        assertEquals(big, Quadratic.sqrt(big.multiply(big)));
+        assertEquals(big.subtract(BigInteger.ONE), Quadratic.sqrt(big.multiply(big).subtract(BigInteger.ONE)));
+    }
+
+    // covers empty batch
+    @Test
+    public void testRootsBatchEmpty() {
+        int[] offsets = new int[1];
+        assertEquals(0, Quadratic.rootsBatch(new int[0], new int[0], new int[0], offsets, new int[0]));
+        assertEquals(0, offsets[0]);
+    }
+
+    // covers sequential and parallel batches, 0, 1, and 2 roots per equation
+    @Test
+    public void testRootsBatchMatchesPrimitiveRoots() {
+        Random random = new Random(6005);
+        int n = 100_000;
+        int[] a = new int[n], b = new int[n], c = new int[n];
+        for (int i = 0; i < n; i++) {
+            int k = (random.nextInt(10) + 1) * (random.nextBoolean() ? 1 : -1);
+            int r1 = random.nextInt(201) - 100;
+            int r2 = random.nextInt(201) - 100;
+            a[i] = k;
+            b[i] = -k * (r1 + r2) + (random.nextInt(4) == 0 ? 1 : 0); // sometimes perturbed so there are no roots
+            c[i] = k * r1 * r2;
+        }
+
+        int[] offsets = new int[n + 1], values = new int[2 * n];
+        int total = Quadratic.rootsBatch(a, b, c, offsets, values);
+        int[] parallelOffsets = new int[n + 1], parallelValues = new int[2 * n];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(total, Quadratic.rootsBatch(a, b, c, parallelOffsets, parallelValues, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(total, offsets[n]);
+        assertTrue(Arrays.equals(offsets, parallelOffsets));
+        assertTrue(Arrays.equals(Arrays.copyOf(values, total), Arrays.copyOf(parallelValues, total)));
+
+        int[] roots = new int[2];
+        for (int i = 0; i < n; i++) {
+            int count = Quadratic.roots(a[i], b[i], c[i], roots);
+            assertEquals(count, offsets[i + 1] - offsets[i]);
+            for (int j = 0; j < count; j++) {
+                assertEquals(roots[j], values[offsets[i] + j]);
+            }
+        }
+    }
+
+    // returns the integer roots of ax^2 + bx + c = 0 with |a|, |b|, |c| <= 1000 by trying every candidate;
+    // no root is bigger than 1000, since a root divides c when c != 0, and the roots are 0 and -b/a when c = 0
+    private static Set<Integer> bruteForceRoots(int a, int b, int c) {
+        Set<Integer> roots = new HashSet<>();
+        for (long x = -1000; x <= 1000; x++) {
+            if (a * x * x + b * x + c == 0) {
+                roots.add((int) x);
+            }
+        }
+        return roots;
+    }
+
+    // returns the roots found by the primitive overload, checking they are ascending and distinct
+    private static Set<Integer> primitiveRoots(int a, int b, int c) {
+        int[] roots = new int[2];
+        int count = Quadratic.roots(a, b, c, roots);
+        if (count == 2) {
+            assertTrue("expected ascending roots", roots[0] < roots[1]);
+        }
+        Set<Integer> set = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            set.add(roots[i]);
+        }
+        return set;
+    }
+
     // returns a set of the integers passed as parameters
     private static Set<Integer> makeSet(int... elements) {
         Set<Integer> set = new HashSet<>();
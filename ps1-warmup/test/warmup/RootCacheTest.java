@@ -0,0 +1,157 @@
+package warmup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class RootCacheTest {
+
+    /*
+     * Testing strategy:
+     * 
+     * Partitions:
+     *    eviction: LRU, LFU
+     *    lookup: miss, hit, miss after eviction
+     *    result: 0, 1, or 2 roots
+     *    cache: not full, full; one segment, several segments
+     *    callers: one thread, several threads
+     * 
+     * Each of these parts is covered by at least one test case below.
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers miss then hit, 0, 1, and 2 roots, cache not full
+    @Test
+    public void testHitsAndMisses() {
+        RootCache cache = new RootCache(16, RootCache.Eviction.LRU);
+        assertEquals(makeSet(5, 8), cache.roots(1, -13, 40));
+        assertEquals(makeSet(13), cache.roots(1, -26, 169));
+        assertEquals(makeSet(), cache.roots(1, -2, 2));
+        assertEquals(3, cache.missCount());
+        assertEquals(0, cache.hitCount());
+
+        Set<Integer> first = cache.roots(1, -13, 40);
+        assertSame(first, cache.roots(1, -13, 40));
+        assertEquals(3, cache.missCount());
+        assertEquals(2, cache.hitCount());
+        assertEquals(3, cache.size());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    // covers results are shared, so they can't be modified
+    @Test(expected=UnsupportedOperationException.class)
+    public void testResultUnmodifiable() {
+        RootCache cache = new RootCache(16, RootCache.Eviction.LRU);
+        cache.roots(1, -13, 40).add(0);
+    }
+
+    // covers LRU, full cache with one segment, miss after eviction
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        RootCache cache = new RootCache(2, RootCache.Eviction.LRU, 1);
+        cache.roots(1, -1, 0);  // A
+        cache.roots(1, -2, 0);  // B
+        cache.roots(1, -1, 0);  // A is now more recent than B
+        cache.roots(1, -3, 0);  // C evicts B
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+
+        long misses = cache.missCount();
+        cache.roots(1, -1, 0);
+        cache.roots(1, -3, 0);
+        assertEquals(misses, cache.missCount());
+        assertEquals(makeSet(0, 2), cache.roots(1, -2, 0));
+        assertEquals(misses + 1, cache.missCount());
+    }
+
+    // covers LFU, full cache, frequently used entry survives a stream of one-off equations
+    @Test
+    public void testLfuKeepsFrequentlyUsed() {
+        RootCache cache = new RootCache(4, RootCache.Eviction.LFU, 1);
+        for (int i = 0; i < 10; i++) {
+            cache.roots(1, -13, 40);
+        }
+        for (int i = 1; i <= 100; i++) {
+            cache.roots(1, -i, 0);
+        }
+        assertEquals(4, cache.size());
+        long misses = cache.missCount();
+        assertEquals(makeSet(5, 8), cache.roots(1, -13, 40));
+        assertEquals(misses, cache.missCount());
+    }
+
+    // covers several segments, size never exceeds capacity, results agree with Quadratic.roots
+    @Test
+    public void testCapacityBoundAcrossSegments() {
+        RootCache cache = new RootCache(256, RootCache.Eviction.LRU, 4);
+        Random random = new Random(6005);
+        for (int i = 0; i < 10_000; i++) {
+            int a = random.nextInt(21) - 10, b = random.nextInt(21) - 10, c = random.nextInt(21) - 10;
+            if (a == 0 && b == 0 && c == 0) {
+                continue;
+            }
+            assertEquals(Quadratic.roots(a, b, c), cache.roots(a, b, c));
+            assertTrue(cache.size() <= 256);
+        }
+        assertEquals(256, cache.size());
+        assertTrue(cache.hitCount() > 0 && cache.evictionCount() > 0);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hitCount() + cache.missCount() + cache.evictionCount());
+    }
+
+    // covers several threads sharing one cache
+    @Test
+    public void testConcurrentCallers() throws Exception {
+        RootCache cache = new RootCache(64, RootCache.Eviction.LFU, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final long seed = t;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        int r1 = random.nextInt(20) - 10, r2 = random.nextInt(20) - 10;
+                        if (!cache.roots(1, -(r1 + r2), r1 * r2).equals(makeSet(r1, r2))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(80_000, cache.hitCount() + cache.missCount());
+        assertTrue(cache.size() <= 64);
+    }
+
+    // returns a set of the integers passed as parameters
+    private static Set<Integer> makeSet(int... elements) {
+        Set<Integer> set = new HashSet<>();
+        for (int x: elements) {
+            set.add(x);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,111 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * AuthorIndex is an immutable index of a list of tweets by author. Authors are
+ * case-insensitive, so the index is keyed by lowercased username, and it is
+ * built in one pass over the tweets. Looking up an author's tweets takes
+ * constant time and copies nothing.
+ */
+public class AuthorIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<Tweet> tweets;
+    private final Map<String, int[]> byAuthor;
+
+    // rep invariant:
+    //    every ordinal list is nonempty and strictly ascending
+    //    i is in byAuthor.get(a) iff tweets.get(i).getAuthor().toLowerCase() equals a
+    // abstraction function:
+    //    represents the list of tweets, partitioned by lowercased author, with the
+    //      authors in order of their first tweet
+    // safety from rep exposure argument:
+    //    tweets is an unmodifiable copy, the ordinal arrays are never returned except
+    //      inside unmodifiable views, and Tweet is immutable
+
+    /**
+     * Build an index over a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this method
+     */
+    public AuthorIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+
+        Map<String, IntList> building = new LinkedHashMap<String, IntList>();
+        for (int i = 0; i < this.tweets.size(); i++) {
+            String author = this.tweets.get(i).getAuthor().toLowerCase();
+            IntList ordinals = building.get(author);
+            if (ordinals == null) {
+                ordinals = new IntList();
+                building.put(author, ordinals);
+            }
+            ordinals.add(i);
+        }
+        byAuthor = new LinkedHashMap<String, int[]>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<String, IntList> entry : building.entrySet()) {
+            byAuthor.put(entry.getKey(), entry.getValue().toArray());
+        }
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        int total = 0;
+        for (int[] ordinals : byAuthor.values()) {
+            assert ordinals.length > 0;
+            total += ordinals.length;
+        }
+        assert total == tweets.size();
+    }
+
+    /**
+     * @return unmodifiable list of the indexed tweets, in the order they were given
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * @return unmodifiable set of the lowercased authors of the indexed tweets,
+     *         in order of each author's first tweet
+     */
+    public Set<String> authors() {
+        return Collections.unmodifiableSet(byAuthor.keySet());
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username Twitter username, compared case-insensitively
+     * @return unmodifiable view of all and only the indexed tweets whose author is
+     *         username, in the same order as in tweets()
+     */
+    public List<Tweet> writtenBy(String username) {
+        return new OrdinalList<Tweet>(tweets, ordinals(username));
+    }
+
+    /**
+     * @param username Twitter username, compared case-insensitively
+     * @return number of indexed tweets whose author is username
+     */
+    public int tweetCount(String username) {
+        return ordinals(username).length;
+    }
+
+    /**
+     * @param username Twitter username, compared case-insensitively
+     * @return positions in tweets() of the tweets whose author is username, ascending;
+     *         shared with the index, so not to be modified
+     */
+    int[] ordinals(String username) {
+        int[] ordinals = byAuthor.get(username.toLowerCase());
+        return ordinals == null ? NONE : ordinals;
+    }
+}
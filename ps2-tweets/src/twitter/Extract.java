@@ -1,14 +1,14 @@
 package twitter;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -47,6 +47,18 @@ public class Extract {
         return new Timespan(start, end);
     }
 
+    /**
+     * Get the time period spanned by indexed tweets, in constant time.
+     * 
+     * @param index
+     *            time index of tweets with distinct ids
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every indexed tweet.
+     */
+    public static Timespan getTimespan(TweetTimeIndex index) {
+        return index.getTimespan();
+    }
+
     /**
      * Get usernames mentioned in a list of tweets.
      * 
@@ -64,19 +76,37 @@ public class Extract {
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
         Set<String> mentions = new HashSet<String>();
-        // pattern is a negative lookbehind that only captures mentions not preceded by a valid username character
-        Pattern p = Pattern.compile("(?<![a-zA-z0-9-_])@([a-zA-z0-9-_]+)");
-        
         for (Tweet tweet : tweets) {
-            Matcher m = p.matcher(tweet.getText());
-            while (m.find()) {
-                // Since set isn't case-insensitive by default, force toLowerCase before adding to set
-                String username = m.group(1).toLowerCase();
-                mentions.add(username);
-            }
+            // mentions come back lowercased, since usernames are case-insensitive
+            TweetFeatures.scan(tweet.getText(), mentions, null, null);
         }
         return mentions;
     }
+
+    /**
+     * Same as {@link #getMentionedUsers(List)}, but as user ids. Only the result
+     * is compact: the scan still makes a lowercased String for every mention, as
+     * getMentionedUsers does, and looks it up in the registry.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param users
+     *            registry to look up and register the mentioned usernames in
+     * @return the set of ids in users of the usernames mentioned in the text
+     *         of the tweets.
+     */
+    public static BitSet getMentionedUserIds(List<Tweet> tweets, UserRegistry users) {
+        BitSet ids = new BitSet();
+        List<String> mentions = new ArrayList<String>();
+        for (Tweet tweet : tweets) {
+            mentions.clear();
+            TweetFeatures.scan(tweet.getText(), mentions, null, null);
+            for (String mention : mentions) {
+                ids.set(users.id(mention));
+            }
+        }
+        return ids;
+    }
     
     /**
      * Get hashtags and a list of user who have used them from a list of tweets
@@ -88,17 +118,17 @@ public class Extract {
      */
     public static Map<String, Set<String>> getHashtagUsers(List<Tweet> tweets) {
         Map<String, Set<String>> hashtags = new HashMap<String, Set<String>>();
-        // regex pattern is any # followed by letters, numbers, dashes or underscores greater than length 0 terminated by twitter-valid terminators
-        Pattern p = Pattern.compile("#([a-zA-z0-9-_]+)[\\.\\,\\!\\)$ ]?");
+        List<String> tweetHashtags = new ArrayList<String>();
         
         for (Tweet tweet : tweets) {
-            Matcher m = p.matcher(tweet.getText());
-            // while hashtags are being found
-            while (m.find()) {
-                // Since Map isn't case-insensitive by default, force toLowerCase before adding to map
-                String hashtag = m.group(1).toLowerCase();
-                String author = tweet.getAuthor().toLowerCase();
-                
+            // hashtags come back lowercased, since hashtags are case-insensitive
+            tweetHashtags.clear();
+            TweetFeatures.scan(tweet.getText(), null, tweetHashtags, null);
+            if (tweetHashtags.isEmpty()) {
+                continue;
+            }
+            String author = tweet.getAuthor().toLowerCase();
+            for (String hashtag : tweetHashtags) {
                 if (!hashtags.containsKey(hashtag)) {
                     hashtags.put(hashtag, new HashSet<String>());
                 }
@@ -108,6 +138,61 @@ public class Extract {
         return hashtags;
     }
 
+    /**
+     * Same as {@link #getHashtagUsers(List)}, but with authors as user ids. Only
+     * the result is compact: the scan still makes a lowercased String for every
+     * hashtag, as getHashtagUsers does. Authors are looked up by their spelling
+     * in the tweet, which the registry caches, so they are not lowercased again.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param users
+     *            registry to look up and register the authors in
+     * @return map from each lowercased hashtag used in the tweets to the ids in
+     *         users of the authors who used it.
+     */
+    public static Map<String, BitSet> getHashtagUserIds(List<Tweet> tweets, UserRegistry users) {
+        Map<String, BitSet> hashtags = new HashMap<String, BitSet>();
+        List<String> tweetHashtags = new ArrayList<String>();
+        for (Tweet tweet : tweets) {
+            tweetHashtags.clear();
+            TweetFeatures.scan(tweet.getText(), null, tweetHashtags, null);
+            if (tweetHashtags.isEmpty()) {
+                continue;
+            }
+            int author = users.id(tweet.getAuthor());
+            for (String hashtag : tweetHashtags) {
+                BitSet authors = hashtags.get(hashtag);
+                if (authors == null) {
+                    authors = new BitSet();
+                    hashtags.put(hashtag, authors);
+                }
+                authors.set(author);
+            }
+        }
+        return hashtags;
+    }
+
+    /**
+     * Count the users of each hashtag in a list of tweets, approximately for
+     * hashtags with many users, as the sizes of the sets of getHashtagUsers.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @param relativeError
+     *            relative standard error of the counts of hashtags with more
+     *            than exactThreshold users. Requires 0 < relativeError < 1.
+     * @param exactThreshold
+     *            most users a hashtag can have and keep an exact set of users.
+     *            Requires exactThreshold >= 0.
+     * @return counts of the distinct authors who used each hashtag, exact for
+     *         hashtags with at most exactThreshold users, else estimated in
+     *         fixed memory per hashtag.
+     */
+    public static HashtagUsers getHashtagUserCounts(List<Tweet> tweets, double relativeError, int exactThreshold) {
+        return new HashtagUsers(relativeError, exactThreshold).addAll(tweets);
+    }
+
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
      * Redistribution of original or derived work requires explicit permission.
      * Don't post any of this code on the web or to a public Github repository.
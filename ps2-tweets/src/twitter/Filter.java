@@ -2,10 +2,11 @@ package twitter;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 
 /**
  * Filter consists of methods that filter a list of tweets for those matching a
@@ -38,6 +39,82 @@ public class Filter {
         return authored;
     }
 
+    /**
+     * Same as {@link #writtenBy(List, String)}, but checks the tweets across the
+     * threads of a fork/join pool.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @param pool
+     *            pool to filter in, e.g. new ForkJoinPool(threads)
+     * @return a list equal to writtenBy(tweets, username), in the same order as
+     *         in the input list.
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, String username, ForkJoinPool pool) {
+        return filter(tweets, tweet -> username.equalsIgnoreCase(tweet.getAuthor()), pool);
+    }
+
+    /**
+     * Find tweets written by a particular user, given as a user id, comparing
+     * the authors' ids instead of their spellings.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param user
+     *            id of a username in users
+     * @param users
+     *            registry to look up the authors in, not modified by this
+     *            method; an author not in it is not the user
+     * @return all and only the tweets in the list whose author is the user with
+     *         id user, in the same order as in the input list.
+     */
+    public static List<Tweet> writtenBy(List<Tweet> tweets, int user, UserRegistry users) {
+        List<Tweet> authored = new ArrayList<Tweet>();
+        for (Tweet tweet : tweets) {
+            // an unregistered author is -1, never a user id, and stays unregistered
+            if (users.idIfPresent(tweet.getAuthor()) == user) {
+                authored.add(tweet);
+            }
+        }
+        return authored;
+    }
+
+    /**
+     * Find indexed tweets written by a particular user, by looking the user up
+     * in the index instead of checking every tweet.
+     * 
+     * @param index
+     *            an author index of tweets with distinct ids
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the indexed tweets whose author is username, in the
+     *         same order as in index.tweets(). The list is unmodifiable.
+     */
+    public static List<Tweet> writtenBy(AuthorIndex index, String username) {
+        return index.writtenBy(username);
+    }
+
+    /**
+     * Find tweets in a store written by a particular user, scanning only the
+     * store's author column.
+     * 
+     * @param store
+     *            a store of tweets with distinct ids
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets in the store whose author is username,
+     *         in store order. The list is unmodifiable and makes each tweet
+     *         only when it is read.
+     */
+    public static List<Tweet> writtenBy(TweetStore store, String username) {
+        return store.tweets(store.writtenBy(username));
+    }
+
     /**
      * Find tweets that were sent during a particular timespan.
      * 
@@ -60,6 +137,56 @@ public class Filter {
         return tweetsInSpan;
     }
 
+    /**
+     * Same as {@link #inTimespan(List, Timespan)}, but checks the tweets across
+     * the threads of a fork/join pool.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param timespan
+     *            timespan
+     * @param pool
+     *            pool to filter in, e.g. new ForkJoinPool(threads)
+     * @return a list equal to inTimespan(tweets, timespan), in the same order as
+     *         in the input list.
+     */
+    public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan, ForkJoinPool pool) {
+        Instant start = timespan.getStart();
+        Instant end = timespan.getEnd();
+        return filter(tweets, tweet -> !tweet.getTimestamp().isBefore(start) && !tweet.getTimestamp().isAfter(end), pool);
+    }
+
+    /**
+     * Find tweets in a store that were sent during a particular timespan,
+     * scanning only the store's timestamp column.
+     * 
+     * @param store
+     *            a store of tweets with distinct ids
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in the store that were sent during the
+     *         timespan, in store order. The list is unmodifiable and makes each
+     *         tweet only when it is read.
+     */
+    public static List<Tweet> inTimespan(TweetStore store, Timespan timespan) {
+        return store.tweets(store.inTimespan(timespan));
+    }
+
+    /**
+     * Find indexed tweets that were sent during a particular timespan, by binary
+     * search of the index instead of checking every tweet.
+     * 
+     * @param index
+     *            a time index of tweets with distinct ids
+     * @param timespan
+     *            timespan
+     * @return all and only the indexed tweets that were sent during the timespan,
+     *         in the order they were added to the index. The list is unmodifiable.
+     */
+    public static List<Tweet> inTimespan(TweetTimeIndex index, Timespan timespan) {
+        return index.inTimespanInAddedOrder(timespan);
+    }
+
     /**
      * Find tweets that contain certain words.
      * 
@@ -76,27 +203,129 @@ public class Filter {
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
-        Set<Tweet> containing = new HashSet<Tweet>();
+        // compile the words once, then scan each text once, keeping matches in list order
+        WordMatcher matcher = new WordMatcher(words);
+        List<Tweet> containing = new ArrayList<Tweet>();
         for (Tweet tweet : tweets) {
-            for (String word : words) {
-                if (containsSearchString(word, tweet.getText())) {
-                    containing.add(tweet);
-                    break;
-                }
+            if (matcher.matches(tweet.getText())) {
+                containing.add(tweet);
             }
         }
-        return new ArrayList<Tweet>(containing);
+        return containing;
     }
-    
+
     /**
-     * Helper method: check text for the occurrence of term
-     * @param term
-     * @param text text in which to search for a term
-     * @return true IIF term is found as a case-insensitive substring of text bounded by either the start of the string, end of the string, or space characters. Otherwise false.
+     * Same as {@link #containing(List, List)}, but searches the tweets across the
+     * threads of a fork/join pool.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @param pool
+     *            pool to search in, e.g. new ForkJoinPool(threads)
+     * @return all and only the tweets in the list that include at least one of the
+     *         words, as for containing(tweets, words), in the same order as in the
+     *         input list.
      */
-    private static boolean containsSearchString(String term, String text) {
-        Pattern p = Pattern.compile("(?:^| )" + term.toLowerCase() + "(?: |$)");
-        return p.matcher(text.toLowerCase()).find();
+    public static List<Tweet> containing(List<Tweet> tweets, List<String> words, ForkJoinPool pool) {
+        // one matcher, shared by every thread, since a matcher is immutable
+        WordMatcher matcher = new WordMatcher(words);
+        return filter(tweets, tweet -> matcher.matches(tweet.getText()), pool);
+    }
+
+    /**
+     * Find indexed tweets that contain certain words, by looking each word up in
+     * the index instead of searching every tweet.
+     * 
+     * @param index
+     *            an index of tweets with distinct ids
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return all and only the indexed tweets that include at least one of the
+     *         words, as for containing(List, List), in the same order as in
+     *         index.tweets(). The list is unmodifiable.
+     */
+    public static List<Tweet> containing(TweetIndex index, List<String> words) {
+        return index.containing(words);
+    }
+
+    /**
+     * Find tweets that meet a condition, checking them across the threads of a
+     * fork/join pool. The list is split by its spliterator, each part is filtered
+     * into its own buffer, and the buffers are concatenated in list order.
+     * 
+     * @param tweets
+     *            a list of tweets with distinct ids, not modified by this method.
+     * @param condition
+     *            condition to check, safe to call from several threads at once,
+     *            e.g. a TweetQuery's test method
+     * @param pool
+     *            pool to filter in, e.g. new ForkJoinPool(threads)
+     * @return all and only the tweets in the list that meet condition, in the same
+     *         order as in the input list.
+     */
+    public static List<Tweet> filter(List<Tweet> tweets, Predicate<? super Tweet> condition, ForkJoinPool pool) {
+        long threshold = Math.max(FilterTask.MIN_THRESHOLD,
+                tweets.size() / (FilterTask.PARTS_PER_THREAD * pool.getParallelism()) + 1);
+        List<List<Tweet>> buffers = pool.invoke(new FilterTask(tweets.spliterator(), condition, threshold));
+        int size = 0;
+        for (List<Tweet> buffer : buffers) {
+            size += buffer.size();
+        }
+        List<Tweet> matching = new ArrayList<Tweet>(size);
+        for (List<Tweet> buffer : buffers) {
+            matching.addAll(buffer);
+        }
+        return matching;
+    }
+
+    /**
+     * Filters the tweets of a spliterator into buffers, in encounter order.
+     */
+    private static class FilterTask extends RecursiveTask<List<List<Tweet>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        // tweets per leaf task at least, large enough to amortize a task and a buffer
+        private static final int MIN_THRESHOLD = 1 << 12;
+        // leaf tasks per thread, so threads that finish early can steal more
+        private static final int PARTS_PER_THREAD = 4;
+
+        private final Spliterator<Tweet> tweets;
+        private final Predicate<? super Tweet> condition;
+        private final long threshold;
+
+        FilterTask(Spliterator<Tweet> tweets, Predicate<? super Tweet> condition, long threshold) {
+            this.tweets = tweets;
+            this.condition = condition;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<List<Tweet>> compute() {
+            Spliterator<Tweet> prefix;
+            if (tweets.estimateSize() <= threshold || (prefix = tweets.trySplit()) == null) {
+                List<Tweet> buffer = new ArrayList<Tweet>();
+                tweets.forEachRemaining(tweet -> {
+                    if (condition.test(tweet)) {
+                        buffer.add(tweet);
+                    }
+                });
+                List<List<Tweet>> buffers = new ArrayList<List<Tweet>>();
+                buffers.add(buffer);
+                return buffers;
+            }
+            FilterTask left = new FilterTask(prefix, condition, threshold);
+            left.fork();
+            List<List<Tweet>> right = new FilterTask(tweets, condition, threshold).compute();
+            // the prefix holds the earlier tweets, so its buffers go first
+            List<List<Tweet>> buffers = left.join();
+            buffers.addAll(right);
+            return buffers;
+        }
     }
 
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
@@ -0,0 +1,217 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowsGraph is an immutable, compact social network. Usernames are
+ * lowercased and interned to dense int ids, 0..userCount()-1, in alphabetical
+ * order (by String.compareTo), and the follows edges are stored in compressed
+ * sparse row (CSR) form: the users that user u follows are
+ * targets[offsets[u]..offsets[u+1]), in ascending id order.
+ *
+ * A graph holds every user of the social network it was made from, whether
+ * they follow anyone or not, so converting to and from the
+ * Map&lt;String, Set&lt;String&gt;&gt; form used by SocialNetwork keeps the same network.
+ */
+public class FollowsGraph {
+
+    private final String[] usernames;
+    private final int[] offsets;
+    private final int[] targets;
+
+    // rep invariant:
+    //    usernames is strictly ascending and all lowercase, so a user's id is found by
+    //      binary search
+    //    offsets.length == usernames.length + 1, offsets[0] == 0, offsets is ascending,
+    //      and offsets[usernames.length] == targets.length
+    //    each row targets[offsets[u]..offsets[u+1]) is strictly ascending, with every
+    //      target a valid id other than u
+    // abstraction function:
+    //    represents the social network in which usernames[u] follows usernames[v]
+    //      iff v is in row u of targets
+    // safety from rep exposure argument:
+    //    all fields are private and final; public methods return copies, and the
+    //      package-private accessors document that callers must not modify the arrays
+
+    private FollowsGraph(String[] usernames, int[] offsets, int[] targets) {
+        this.usernames = usernames;
+        this.offsets = offsets;
+        this.targets = targets;
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        assert offsets.length == usernames.length + 1;
+        assert offsets[0] == 0 && offsets[usernames.length] == targets.length;
+    }
+
+    /**
+     * Make a compact copy of a social network.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not modified
+     *                     by this method. Usernames are folded to lower case, and a
+     *                     user following themselves is ignored.
+     * @return a graph of the same network
+     */
+    public static FollowsGraph fromMap(Map<String, Set<String>> followsGraph) {
+        // intern every username, whether a follower or followed, in alphabetical order
+        Set<String> names = new HashSet<String>();
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            names.add(entry.getKey().toLowerCase());
+            for (String followed : entry.getValue()) {
+                names.add(followed.toLowerCase());
+            }
+        }
+        String[] usernames = names.toArray(new String[names.size()]);
+        Arrays.sort(usernames);
+
+        // gather each user's targets (keys differing only in case share a row)
+        int[] degrees = new int[usernames.length];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            degrees[Arrays.binarySearch(usernames, entry.getKey().toLowerCase())] += entry.getValue().size();
+        }
+        int[] starts = prefixSums(degrees);
+        int[] unsorted = new int[starts[usernames.length]];
+        int[] fill = Arrays.copyOf(starts, usernames.length);
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int user = Arrays.binarySearch(usernames, entry.getKey().toLowerCase());
+            for (String followed : entry.getValue()) {
+                unsorted[fill[user]++] = Arrays.binarySearch(usernames, followed.toLowerCase());
+            }
+        }
+
+        // sort each row, dropping duplicates and self-follows, and compact
+        int[] offsets = new int[usernames.length + 1];
+        int size = 0;
+        for (int user = 0; user < usernames.length; user++) {
+            Arrays.sort(unsorted, starts[user], starts[user + 1]);
+            for (int i = starts[user]; i < starts[user + 1]; i++) {
+                int target = unsorted[i];
+                if (target != user && (size == offsets[user] || unsorted[size - 1] != target)) {
+                    unsorted[size++] = target;
+                }
+            }
+            offsets[user + 1] = size;
+        }
+        return new FollowsGraph(usernames, offsets, Arrays.copyOf(unsorted, size));
+    }
+
+    /**
+     * @return a new, modifiable social network as defined in SocialNetwork, with every
+     *         user of this graph as a key, mapped to the set of users they follow
+     */
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>(usernames.length * 4 / 3 + 1);
+        for (int user = 0; user < usernames.length; user++) {
+            Set<String> follows = new HashSet<String>((offsets[user + 1] - offsets[user]) * 4 / 3 + 1);
+            for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+                follows.add(usernames[targets[i]]);
+            }
+            followsGraph.put(usernames[user], follows);
+        }
+        return followsGraph;
+    }
+
+    /**
+     * @return number of users in the network
+     */
+    public int userCount() {
+        return usernames.length;
+    }
+
+    /**
+     * @return number of follows edges in the network
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param id user id, 0 <= id < userCount()
+     * @return lowercased username of user id
+     */
+    public String username(int id) {
+        return usernames[id];
+    }
+
+    /**
+     * @param username Twitter username, case-insensitive
+     * @return id of username, found by binary search of the sorted usernames, or -1
+     *         if username is not in the network
+     */
+    public int id(String username) {
+        int id = Arrays.binarySearch(usernames, username.toLowerCase());
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * @return unmodifiable list of the lowercased usernames, in id order
+     */
+    public List<String> usernames() {
+        return Collections.unmodifiableList(Arrays.asList(usernames));
+    }
+
+    /**
+     * @param user user id, 0 <= user < userCount()
+     * @return number of users that user follows
+     */
+    public int followCount(int user) {
+        return offsets[user + 1] - offsets[user];
+    }
+
+    /**
+     * @param user user id, 0 <= user < userCount()
+     * @return ids of the users that user follows, ascending
+     */
+    public int[] follows(int user) {
+        return Arrays.copyOfRange(targets, offsets[user], offsets[user + 1]);
+    }
+
+    /**
+     * @return array whose element u is the number of followers of user u
+     */
+    public int[] followerCounts() {
+        int[] counts = new int[usernames.length];
+        for (int target : targets) {
+            counts[target]++;
+        }
+        return counts;
+    }
+
+    /**
+     * @return the row offsets of the CSR form, of length userCount()+1. For algorithms
+     *         in this package; callers must not modify it.
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the concatenated rows of the CSR form, of length edgeCount(). For
+     *         algorithms in this package; callers must not modify it.
+     */
+    int[] targets() {
+        return targets;
+    }
+
+    // starts[i] = sum of counts[0..i), with starts[counts.length] the total
+    private static int[] prefixSums(int[] counts) {
+        int[] starts = new int[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            starts[i + 1] = starts[i] + counts[i];
+        }
+        return starts;
+    }
+
+    @Override
+    public String toString() {
+        return "FollowsGraph(" + usernames.length + " users, " + targets.length + " edges)";
+    }
+}
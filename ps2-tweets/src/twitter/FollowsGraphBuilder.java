@@ -0,0 +1,290 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * FollowsGraphBuilder guesses a follows graph from tweets, as
+ * {@link SocialNetwork#guessFollowsGraph(List)} does, in a single pass over
+ * the tweets: an author follows every user they @-mention and every other
+ * user of any hashtag they use. Each tweet is scanned once, by
+ * {@link TweetFeatures}, and only the per-author mentions and per-hashtag
+ * users are kept. Authors and hashtags are interned to dense ids, so an
+ * author's co-hashtaggers are the union of bit sets, and building takes time
+ * linear in the tweets plus the size of the resulting graph.
+ *
+ * A builder is mutable and not thread-safe; tweets can be added in any number
+ * of calls before build(). To use several threads, gather with
+ * {@link #of(List, ForkJoinPool)}, or gather separate builders and
+ * {@link #merge(FollowsGraphBuilder) merge} them, then build with
+ * {@link #build(ForkJoinPool)}.
+ */
+public class FollowsGraphBuilder {
+
+    // authors, interned to dense ids in order of first tweet
+    private final Map<String, Integer> authorIds = new HashMap<String, Integer>();
+    private final List<String> authors = new ArrayList<String>();
+    // author id -> lowercased users they mention
+    private final List<Set<String>> mentions = new ArrayList<Set<String>>();
+    // author id -> ids of the hashtags they use
+    private final List<BitSet> hashtagsUsed = new ArrayList<BitSet>();
+    // hashtags, interned to dense ids; hashtag id -> ids of the authors who use it
+    private final Map<String, Integer> hashtagIds = new HashMap<String, Integer>();
+    private final List<String> hashtags = new ArrayList<String>();
+    private final List<BitSet> hashtagUsers = new ArrayList<BitSet>();
+
+    // scratch for one tweet's hashtags
+    private final List<String> tweetHashtags = new ArrayList<String>();
+
+    // rep invariant:
+    //    authorIds and authors are inverse, and mentions and hashtagsUsed have one entry per author
+    //    hashtagIds and hashtags are inverse, and hashtagUsers has one entry per hashtag
+    //    author a is in hashtagUsers.get(h) iff hashtag h is in hashtagsUsed.get(a)
+    //    all strings are lowercase
+    // abstraction function:
+    //    represents the evidence gathered from the tweets added so far: who each author
+    //      mentioned, and which authors used each hashtag
+    // safety from rep exposure argument:
+    //    all fields are private, and build() returns fresh sets
+
+    /**
+     * Make a builder with no tweets.
+     */
+    public FollowsGraphBuilder() {
+    }
+
+    /**
+     * Add the evidence in a tweet.
+     *
+     * @param tweet tweet to add
+     * @return this builder
+     */
+    public FollowsGraphBuilder add(Tweet tweet) {
+        int author = authorId(tweet.getAuthor().toLowerCase());
+        tweetHashtags.clear();
+        TweetFeatures.scan(tweet.getText(), mentions.get(author), tweetHashtags, null);
+        for (String hashtag : tweetHashtags) {
+            int id = hashtagId(hashtag);
+            hashtagUsers.get(id).set(author);
+            hashtagsUsed.get(author).set(id);
+        }
+        return this;
+    }
+
+    /**
+     * Gather the evidence in a list of tweets, splitting the list across the
+     * threads of a fork/join pool. Each part is gathered by its own builder, and
+     * neighboring parts are merged pairwise up a tree. The parts depend only on
+     * the size of the list, so the result is the same for any pool.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @param pool pool to gather in; its parallelism sets how many threads are used
+     * @return a new builder holding the evidence in tweets, equal to
+     *         new FollowsGraphBuilder().addAll(tweets)
+     */
+    public static FollowsGraphBuilder of(List<Tweet> tweets, ForkJoinPool pool) {
+        int threshold = Math.max(GatherTask.MIN_THRESHOLD, tweets.size() / GatherTask.MAX_PARTS + 1);
+        return pool.invoke(new GatherTask(tweets, 0, tweets.size(), threshold));
+    }
+
+    /**
+     * Add all the evidence gathered by another builder, as if its tweets were added
+     * to this builder after this builder's own.
+     *
+     * @param other builder to merge, not modified by this method
+     * @return this builder
+     */
+    public FollowsGraphBuilder merge(FollowsGraphBuilder other) {
+        if (other == this) {
+            return this;
+        }
+        int[] hashtagMap = new int[other.hashtags.size()];
+        for (int hashtag = 0; hashtag < hashtagMap.length; hashtag++) {
+            hashtagMap[hashtag] = hashtagId(other.hashtags.get(hashtag));
+        }
+        for (int otherAuthor = 0; otherAuthor < other.authors.size(); otherAuthor++) {
+            int author = authorId(other.authors.get(otherAuthor));
+            mentions.get(author).addAll(other.mentions.get(otherAuthor));
+            BitSet used = other.hashtagsUsed.get(otherAuthor);
+            for (int hashtag = used.nextSetBit(0); hashtag >= 0; hashtag = used.nextSetBit(hashtag + 1)) {
+                hashtagUsers.get(hashtagMap[hashtag]).set(author);
+                hashtagsUsed.get(author).set(hashtagMap[hashtag]);
+            }
+        }
+        return this;
+    }
+
+    private int hashtagId(String hashtag) {
+        Integer id = hashtagIds.get(hashtag);
+        if (id == null) {
+            id = hashtags.size();
+            hashtagIds.put(hashtag, id);
+            hashtags.add(hashtag);
+            hashtagUsers.add(new BitSet());
+        }
+        return id;
+    }
+
+    private int authorId(String author) {
+        Integer id = authorIds.get(author);
+        if (id == null) {
+            id = authors.size();
+            authorIds.put(author, id);
+            authors.add(author);
+            mentions.add(new HashSet<String>());
+            hashtagsUsed.add(new BitSet());
+        }
+        return id;
+    }
+
+    /**
+     * Add the evidence in some tweets.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @return this builder
+     */
+    public FollowsGraphBuilder addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        return this;
+    }
+
+    /**
+     * @return number of distinct authors (case-insensitively) of the tweets added so far
+     */
+    public int authorCount() {
+        return authors.size();
+    }
+
+    /**
+     * Build the follows graph of the tweets added so far.
+     *
+     * @return a new, modifiable social network, as defined in SocialNetwork, with one
+     *         key per distinct author (lowercased) of the tweets added, mapped to the
+     *         lowercased users that author mentions or shares a hashtag with, except
+     *         the author; equal to SocialNetwork.guessFollowsGraph of the same tweets
+     */
+    public Map<String, Set<String>> build() {
+        Map<String, Set<String>> network = new HashMap<String, Set<String>>(authors.size() * 4 / 3 + 1);
+        BitSet scratch = new BitSet(authors.size());
+        for (int author = 0; author < authors.size(); author++) {
+            network.put(authors.get(author), follows(author, scratch));
+        }
+        return network;
+    }
+
+    /**
+     * Same as {@link #build()}, but computes the authors' follows sets across the
+     * threads of a fork/join pool.
+     *
+     * @param pool pool to build in
+     * @return a new, modifiable social network, equal to build()
+     */
+    public Map<String, Set<String>> build(ForkJoinPool pool) {
+        // filled in place by the tasks, each setting only its own authors' elements
+        List<Set<String>> follows = new ArrayList<Set<String>>(Collections.<Set<String>>nCopies(authors.size(), null));
+        pool.invoke(new FollowsTask(follows, 0, follows.size()));
+        Map<String, Set<String>> network = new HashMap<String, Set<String>>(authors.size() * 4 / 3 + 1);
+        for (int author = 0; author < follows.size(); author++) {
+            network.put(authors.get(author), follows.get(author));
+        }
+        return network;
+    }
+
+    // the users author follows, using scratch (which it clears) for co-hashtaggers
+    private Set<String> follows(int author, BitSet scratch) {
+        // union the users of each of the author's hashtags a word at a time
+        scratch.clear();
+        BitSet used = hashtagsUsed.get(author);
+        for (int hashtag = used.nextSetBit(0); hashtag >= 0; hashtag = used.nextSetBit(hashtag + 1)) {
+            scratch.or(hashtagUsers.get(hashtag));
+        }
+        Set<String> follows = new HashSet<String>(mentions.get(author));
+        for (int user = scratch.nextSetBit(0); user >= 0; user = scratch.nextSetBit(user + 1)) {
+            follows.add(authors.get(user));
+        }
+        // user can't follow self
+        follows.remove(authors.get(author));
+        return follows;
+    }
+
+    /**
+     * Gathers the evidence in tweets [from, to) into a new builder.
+     */
+    private static class GatherTask extends RecursiveTask<FollowsGraphBuilder> {
+
+        private static final long serialVersionUID = 1L;
+
+        // tweets per leaf task at least, large enough to amortize a builder
+        private static final int MIN_THRESHOLD = 1 << 13;
+        // leaf tasks at most, since every merge revisits the authors of its right part
+        private static final int MAX_PARTS = 64;
+
+        private final List<Tweet> tweets;
+        private final int from, to;
+        private final int threshold;
+
+        GatherTask(List<Tweet> tweets, int from, int to, int threshold) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected FollowsGraphBuilder compute() {
+            if (to - from <= threshold) {
+                return new FollowsGraphBuilder().addAll(tweets.subList(from, to));
+            }
+            int mid = (from + to) >>> 1;
+            GatherTask left = new GatherTask(tweets, from, mid, threshold);
+            left.fork();
+            FollowsGraphBuilder right = new GatherTask(tweets, mid, to, threshold).compute();
+            // earlier tweets on the left, so authors and hashtags keep their sequential ids
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Computes the follows sets of authors [from, to) into follows.
+     */
+    private class FollowsTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // authors per leaf task
+        private static final int THRESHOLD = 1 << 6;
+
+        private final List<Set<String>> follows;
+        private final int from, to;
+
+        FollowsTask(List<Set<String>> follows, int from, int to) {
+            this.follows = follows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                BitSet scratch = new BitSet(authors.size());
+                for (int author = from; author < to; author++) {
+                    follows.set(author, follows(author, scratch));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FollowsTask(follows, from, mid), new FollowsTask(follows, mid, to));
+            }
+        }
+    }
+}
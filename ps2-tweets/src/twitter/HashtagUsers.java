@@ -0,0 +1,279 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * HashtagUsers counts the distinct authors who use each hashtag, as the sizes
+ * of the sets of {@link Extract#getHashtagUsers(List)}, in bounded memory per
+ * hashtag: the users of a hashtag are kept in an exact set until there are more
+ * than a threshold of them, and from then on only in a {@link HyperLogLog}
+ * sketch, so a viral hashtag costs a fixed number of registers rather than a
+ * set of millions of usernames.
+ *
+ * Counts are mergeable: merging the counts of two lists of tweets gives the
+ * counts of their concatenation, exactly as if its tweets had been added to
+ * one counter, so parts of a list can be counted on different threads; see
+ * {@link #of(List, ForkJoinPool, double, int)}. A counter is mutable and not
+ * thread-safe.
+ */
+public class HashtagUsers {
+
+    private final int precision;
+    private final int exactThreshold;
+    // lowercased hashtag -> its lowercased users, for hashtags with at most exactThreshold
+    private final Map<String, Set<String>> exact = new HashMap<String, Set<String>>();
+    // lowercased hashtag -> sketch of its users, for the other hashtags
+    private final Map<String, HyperLogLog> sketched = new HashMap<String, HyperLogLog>();
+
+    // scratch for one tweet's hashtags
+    private final List<String> tweetHashtags = new ArrayList<String>();
+
+    // rep invariant:
+    //    exact and sketched have disjoint keys; every set in exact has size <= exactThreshold,
+    //      and every sketch in sketched has the given precision
+    //    all strings are lowercase
+    // abstraction function:
+    //    represents, for each hashtag used by the tweets added, the set of their authors who
+    //      used it: the set in exact, or the set of users added to the sketch in sketched
+    // safety from rep exposure argument:
+    //    all fields are private; exactUsers returns an unmodifiable copy, and sketches
+    //      are never returned
+
+    /**
+     * Make a counter with no tweets.
+     *
+     * @param relativeError relative standard error of the counts of hashtags with more
+     *        than exactThreshold users, as for HyperLogLog.withError(relativeError)
+     * @param exactThreshold most users a hashtag can have and be counted exactly.
+     *        Requires exactThreshold >= 0.
+     */
+    public HashtagUsers(double relativeError, int exactThreshold) {
+        this(HyperLogLog.precisionFor(relativeError), exactThreshold);
+    }
+
+    private HashtagUsers(int precision, int exactThreshold) {
+        if (exactThreshold < 0) {
+            throw new IllegalArgumentException("exact threshold must be nonnegative");
+        }
+        this.precision = precision;
+        this.exactThreshold = exactThreshold;
+    }
+
+    /**
+     * Count the users of each hashtag in a list of tweets, splitting the list across
+     * the threads of a fork/join pool and merging the parts' counts.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @param pool pool to count in
+     * @param relativeError as for HashtagUsers(relativeError, exactThreshold)
+     * @param exactThreshold as for HashtagUsers(relativeError, exactThreshold)
+     * @return a new counter of the users in tweets, equal in its counts to
+     *         new HashtagUsers(relativeError, exactThreshold).addAll(tweets)
+     */
+    public static HashtagUsers of(List<Tweet> tweets, ForkJoinPool pool, double relativeError, int exactThreshold) {
+        HashtagUsers empty = new HashtagUsers(relativeError, exactThreshold);
+        return pool.invoke(new CountTask(tweets, 0, tweets.size(), empty));
+    }
+
+    /**
+     * Add the hashtags in a tweet, used by its author.
+     *
+     * @param tweet tweet to add
+     * @return this counter
+     */
+    public HashtagUsers add(Tweet tweet) {
+        tweetHashtags.clear();
+        TweetFeatures.scan(tweet.getText(), null, tweetHashtags, null);
+        if (tweetHashtags.isEmpty()) {
+            return this;
+        }
+        String author = tweet.getAuthor().toLowerCase();
+        for (String hashtag : tweetHashtags) {
+            HyperLogLog sketch = sketched.get(hashtag);
+            if (sketch != null) {
+                sketch.add(author);
+                continue;
+            }
+            Set<String> users = exact.get(hashtag);
+            if (users == null) {
+                users = new HashSet<String>();
+                exact.put(hashtag, users);
+            }
+            if (users.add(author) && users.size() > exactThreshold) {
+                sketch(hashtag, users);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add the hashtags in some tweets.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @return this counter
+     */
+    public HashtagUsers addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        return this;
+    }
+
+    /**
+     * Add all the users counted by another counter, as if its tweets were added to
+     * this counter.
+     *
+     * @param other counter to merge, not modified by this method.  Requires the same
+     *        relative error and exact threshold as this counter.
+     * @return this counter
+     */
+    public HashtagUsers merge(HashtagUsers other) {
+        if (other.precision != precision || other.exactThreshold != exactThreshold) {
+            throw new IllegalArgumentException("cannot merge counters with different error or threshold");
+        }
+        if (other == this) {
+            return this;
+        }
+        for (Map.Entry<String, HyperLogLog> entry : other.sketched.entrySet()) {
+            String hashtag = entry.getKey();
+            Set<String> users = exact.remove(hashtag);
+            HyperLogLog sketch = sketched.get(hashtag);
+            if (sketch == null) {
+                sketch = entry.getValue().copy();
+                sketched.put(hashtag, sketch);
+            } else {
+                sketch.merge(entry.getValue());
+            }
+            if (users != null) {
+                for (String user : users) {
+                    sketch.add(user);
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : other.exact.entrySet()) {
+            String hashtag = entry.getKey();
+            HyperLogLog sketch = sketched.get(hashtag);
+            if (sketch != null) {
+                for (String user : entry.getValue()) {
+                    sketch.add(user);
+                }
+                continue;
+            }
+            Set<String> users = exact.get(hashtag);
+            if (users == null) {
+                users = new HashSet<String>(entry.getValue());
+                exact.put(hashtag, users);
+            } else {
+                users.addAll(entry.getValue());
+            }
+            if (users.size() > exactThreshold) {
+                sketch(hashtag, users);
+            }
+        }
+        return this;
+    }
+
+    // move hashtag's users from its exact set to a new sketch
+    private void sketch(String hashtag, Set<String> users) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (String user : users) {
+            sketch.add(user);
+        }
+        exact.remove(hashtag);
+        sketched.put(hashtag, sketch);
+    }
+
+    /**
+     * @return unmodifiable set of the lowercased hashtags used in the tweets added
+     */
+    public Set<String> hashtags() {
+        Set<String> hashtags = new HashSet<String>(exact.keySet());
+        hashtags.addAll(sketched.keySet());
+        return Collections.unmodifiableSet(hashtags);
+    }
+
+    /**
+     * @param hashtag hashtag without its "#", case-insensitive
+     * @return number of distinct authors of the tweets added who used hashtag: exact if
+     *         isExact(hashtag), else an estimate with the relative error of this counter
+     */
+    public long userCount(String hashtag) {
+        String key = hashtag.toLowerCase();
+        HyperLogLog sketch = sketched.get(key);
+        if (sketch != null) {
+            return sketch.estimate();
+        }
+        Set<String> users = exact.get(key);
+        return users == null ? 0 : users.size();
+    }
+
+    /**
+     * @param hashtag hashtag without its "#", case-insensitive
+     * @return true iff hashtag has at most the exact threshold of users, so
+     *         userCount(hashtag) is exact and exactUsers(hashtag) is available
+     */
+    public boolean isExact(String hashtag) {
+        return !sketched.containsKey(hashtag.toLowerCase());
+    }
+
+    /**
+     * @param hashtag hashtag without its "#", case-insensitive.  Requires isExact(hashtag).
+     * @return unmodifiable set of the lowercased authors who used hashtag, as in
+     *         Extract.getHashtagUsers; empty if no tweet added used it
+     */
+    public Set<String> exactUsers(String hashtag) {
+        String key = hashtag.toLowerCase();
+        if (sketched.containsKey(key)) {
+            throw new IllegalArgumentException("hashtag " + hashtag + " has more than " + exactThreshold + " users");
+        }
+        Set<String> users = exact.get(key);
+        return users == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<String>(users));
+    }
+
+    @Override
+    public String toString() {
+        return "HashtagUsers(" + exact.size() + " exact, " + sketched.size() + " sketched)";
+    }
+
+    /**
+     * Counts the users in tweets [from, to) into a new counter like empty.
+     */
+    private static class CountTask extends RecursiveTask<HashtagUsers> {
+
+        private static final long serialVersionUID = 1L;
+
+        // tweets per leaf task, large enough to amortize a counter and its merge
+        private static final int THRESHOLD = 1 << 13;
+
+        private final List<Tweet> tweets;
+        private final int from, to;
+        private final HashtagUsers empty;
+
+        CountTask(List<Tweet> tweets, int from, int to, HashtagUsers empty) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.empty = empty;
+        }
+
+        @Override
+        protected HashtagUsers compute() {
+            if (to - from <= THRESHOLD) {
+                return new HashtagUsers(empty.precision, empty.exactThreshold).addAll(tweets.subList(from, to));
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(tweets, from, mid, empty);
+            left.fork();
+            HashtagUsers right = new CountTask(tweets, mid, to, empty).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package twitter;
+
+/**
+ * HyperLogLog estimates the number of distinct strings added to it in fixed
+ * memory: 2^precision one-byte registers, each holding the longest run of
+ * leading zeros seen among the hashes that select it. The estimate has a
+ * relative standard error of about 1.04 / sqrt(2^precision), so 2^14 registers
+ * (16 KB) count within about 0.8% however many strings are added.
+ *
+ * Sketches of the same precision are mergeable: merging two sketches gives the
+ * sketch of the union of their strings, so parts of a stream can be counted
+ * separately, e.g. on different threads, and combined. A sketch is mutable and
+ * not thread-safe.
+ */
+public class HyperLogLog {
+
+    /** least precision allowed */
+    public static final int MIN_PRECISION = 4;
+    /** greatest precision allowed */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    // rep invariant:
+    //    MIN_PRECISION <= precision <= MAX_PRECISION, registers.length == 2^precision
+    //    0 <= registers[j] <= 64 - precision + 1
+    // abstraction function:
+    //    represents the set of strings added, as far as the registers can tell: register j
+    //      is the greatest rank (leading zeros + 1) of the low 64 - precision bits of the
+    //      hash of any string whose hash's high precision bits are j
+    // safety from rep exposure argument:
+    //    all fields are private, and registers is never returned
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param precision log2 of the number of registers.  Requires
+     *        MIN_PRECISION <= precision <= MAX_PRECISION.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in " + MIN_PRECISION + ".." + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Make an empty sketch with the least precision whose relative standard error
+     * is at most relativeError.
+     *
+     * @param relativeError error bound.  Requires relativeError in 0..1 and no less
+     *        than the error of MAX_PRECISION, about 0.002.
+     * @return a new, empty sketch
+     */
+    public static HyperLogLog withError(double relativeError) {
+        return new HyperLogLog(precisionFor(relativeError));
+    }
+
+    /**
+     * @param relativeError error bound, as for withError
+     * @return the least precision whose relative standard error is at most relativeError
+     */
+    static int precisionFor(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relative error must be in 0..1");
+        }
+        double registers = Math.pow(1.04 / relativeError, 2);
+        int precision = Math.max(MIN_PRECISION, 64 - Long.numberOfLeadingZeros((long) Math.ceil(registers) - 1));
+        if (precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("relative error " + relativeError + " needs more than 2^"
+                    + MAX_PRECISION + " registers");
+        }
+        return precision;
+    }
+
+    /**
+     * @return log2 of the number of registers
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return relative standard error of the estimate, 1.04 / sqrt(2^precision)
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Add a string.
+     *
+     * @param s string to add; strings are distinct iff they are not equal
+     * @return this sketch
+     */
+    public HyperLogLog add(String s) {
+        long hash = hash(s);
+        int register = (int) (hash >>> (64 - precision));
+        // rank of the remaining bits, with a sentinel bit so an all-zero rest has the largest rank
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+        return this;
+    }
+
+    /**
+     * Add all the strings of another sketch, so this sketch estimates the number of
+     * distinct strings in the union of the two.
+     *
+     * @param other sketch to merge, not modified by this method.  Requires the same
+     *        precision as this sketch.
+     * @return this sketch
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int j = 0; j < registers.length; j++) {
+            if (other.registers[j] > registers[j]) {
+                registers[j] = other.registers[j];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return a new sketch of the same strings
+     */
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    /**
+     * @return estimated number of distinct strings added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52); // 2^-register
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // small range: linear counting of the empty registers is more accurate
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // 64-bit FNV-1a over the chars, then the murmur3 finalizer to spread the bits
+    private static long hash(String s) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog(precision=" + precision + ", estimate=" + estimate() + ")";
+    }
+}
@@ -0,0 +1,209 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * IncrementalSocialNetwork maintains the follows graph guessed from a growing
+ * stream of tweets, as {@link SocialNetwork#guessFollowsGraph(List)} guesses it
+ * from a list: an author follows every user they @-mention and every other user
+ * of any hashtag they use. Each added tweet updates the follows edges, the
+ * users of its hashtags, and the follower counts in place, in time proportional
+ * to the edges it adds, and the users are kept ranked by follower count, so the
+ * graph and its influencers can be read at any moment without a rebuild.
+ *
+ * A network is mutable and not thread-safe.
+ */
+public class IncrementalSocialNetwork {
+
+    // lowercased author -> lowercased users they follow
+    private final Map<String, Set<String>> follows = new HashMap<String, Set<String>>();
+    // lowercased hashtag -> lowercased authors who use it
+    private final Map<String, Set<String>> hashtagUsers = new HashMap<String, Set<String>>();
+    // lowercased user -> number of followers, for every author and followed user
+    private final Map<String, Integer> followerCounts = new HashMap<String, Integer>();
+    // the keys of followerCounts, in descending order of count, ties alphabetical
+    private final TreeSet<String> ranking = new TreeSet<String>((a, b) -> {
+        int comp = Integer.compare(followerCounts.get(b), followerCounts.get(a));
+        return comp != 0 ? comp : a.compareTo(b);
+    });
+
+    // scratch for one tweet's features
+    private final Set<String> tweetMentions = new HashSet<String>();
+    private final List<String> tweetHashtags = new ArrayList<String>();
+
+    // rep invariant:
+    //    all strings are lowercase, and no user follows themselves
+    //    follows equals SocialNetwork.guessFollowsGraph of the tweets added so far
+    //    hashtagUsers maps each hashtag of those tweets to the authors who used it
+    //    followerCounts maps each key of follows and each followed user to the number of
+    //      keys of follows that follow them
+    //    ranking contains exactly the keys of followerCounts
+    // abstraction function:
+    //    represents the social network guessed from the tweets added so far
+    // safety from rep exposure argument:
+    //    all fields are private; followsGraph() returns fresh sets, and follows(user)
+    //      an unmodifiable view
+
+    /**
+     * Make a network with no tweets.
+     */
+    public IncrementalSocialNetwork() {
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        assert ranking.size() == followerCounts.size();
+        assert followerCounts.size() >= follows.size();
+    }
+
+    /**
+     * Add the evidence in a tweet.
+     *
+     * @param tweet tweet to add
+     * @return this network
+     */
+    public IncrementalSocialNetwork add(Tweet tweet) {
+        String author = tweet.getAuthor().toLowerCase();
+        Set<String> authorFollows = follows.get(author);
+        if (authorFollows == null) {
+            authorFollows = new HashSet<String>();
+            follows.put(author, authorFollows);
+            addUser(author);
+        }
+        tweetMentions.clear();
+        tweetHashtags.clear();
+        TweetFeatures.scan(tweet.getText(), tweetMentions, tweetHashtags, null);
+        for (String mention : tweetMentions) {
+            follow(author, mention);
+        }
+        for (String hashtag : tweetHashtags) {
+            Set<String> users = hashtagUsers.get(hashtag);
+            if (users == null) {
+                users = new HashSet<String>();
+                hashtagUsers.put(hashtag, users);
+            }
+            // an author already using the hashtag already follows and is followed by its users
+            if (users.add(author)) {
+                for (String user : users) {
+                    follow(author, user);
+                    follow(user, author);
+                }
+            }
+        }
+        checkRep();
+        return this;
+    }
+
+    /**
+     * Add the evidence in some tweets.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @return this network
+     */
+    public IncrementalSocialNetwork addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        return this;
+    }
+
+    // follower follows followed, if they are distinct and it is new; follower is a key
+    private void follow(String follower, String followed) {
+        if (follower.equals(followed) || !follows.get(follower).add(followed)) {
+            return;
+        }
+        Integer count = followerCounts.get(followed);
+        if (count == null) {
+            followerCounts.put(followed, 1);
+        } else {
+            // reposition in the ranking under the new count
+            ranking.remove(followed);
+            followerCounts.put(followed, count + 1);
+        }
+        ranking.add(followed);
+    }
+
+    private void addUser(String user) {
+        if (!followerCounts.containsKey(user)) {
+            followerCounts.put(user, 0);
+            ranking.add(user);
+        }
+    }
+
+    /**
+     * @return a new, modifiable social network, as defined in SocialNetwork, equal to
+     *         SocialNetwork.guessFollowsGraph of the tweets added so far
+     */
+    public Map<String, Set<String>> followsGraph() {
+        Map<String, Set<String>> network = new HashMap<String, Set<String>>(follows.size() * 4 / 3 + 1);
+        for (Map.Entry<String, Set<String>> entry : follows.entrySet()) {
+            network.put(entry.getKey(), new HashSet<String>(entry.getValue()));
+        }
+        return network;
+    }
+
+    /**
+     * @param user Twitter username, case-insensitive
+     * @return unmodifiable view of the lowercased users that user follows, empty if
+     *         user has not written any of the tweets added. The view changes as
+     *         tweets are added.
+     */
+    public Set<String> follows(String user) {
+        Set<String> users = follows.get(user.toLowerCase());
+        return users == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(users);
+    }
+
+    /**
+     * @param user Twitter username, case-insensitive
+     * @return number of users who follow user
+     */
+    public int followerCount(String user) {
+        Integer count = followerCounts.get(user.toLowerCase());
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return number of distinct users in the network, authors and followed users
+     */
+    public int userCount() {
+        return followerCounts.size();
+    }
+
+    /**
+     * @return a list of all distinct (lowercased) usernames in the network, in
+     *         descending order of follower count, ties in alphabetical order; equal
+     *         to SocialNetwork.influencers(followsGraph())
+     */
+    public List<String> influencers() {
+        return new ArrayList<String>(ranking);
+    }
+
+    /**
+     * @param k number of users wanted.  Requires k >= 0.
+     * @return the first min(k, userCount()) usernames of influencers(), in the same order
+     */
+    public List<String> influencers(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative");
+        }
+        List<String> top = new ArrayList<String>(Math.min(k, ranking.size()));
+        for (Iterator<String> it = ranking.iterator(); it.hasNext() && top.size() < k; ) {
+            top.add(it.next());
+        }
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalSocialNetwork(" + follows.size() + " authors, " + followerCounts.size() + " users)";
+    }
+}
@@ -0,0 +1,362 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * InfluenceRank scores the users of a follows graph by PageRank: a user is
+ * influential if they are followed by influential users. Following someone
+ * passes a share of the follower's score to them, damped by a random jump
+ * to any user; users who follow nobody share their score with everyone.
+ *
+ * Scores are kept in double arrays indexed by the graph's user ids, and each
+ * iteration pulls scores along the reversed edges, split across the threads
+ * of a fork/join pool. Iteration stops once the scores change by less than a
+ * tolerance (in total, L1 norm) or after a maximum number of iterations.
+ * Starting from the scores of an earlier run, e.g. on yesterday's graph,
+ * usually converges in a few iterations.
+ *
+ * The vertex ranges each thread sums over depend only on the graph, so the
+ * scores are the same for any pool.
+ */
+public class InfluenceRank {
+
+    /** the usual PageRank damping factor */
+    public static final double DEFAULT_DAMPING = 0.85;
+    /** default total change in scores below which iteration stops */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+    /** default limit on iterations */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private final double damping;
+    private final double tolerance;
+    private final int maxIterations;
+
+    // rep invariant:
+    //    0 <= damping < 1, tolerance >= 0, maxIterations >= 1
+    // abstraction function:
+    //    represents the PageRank computation with the given damping, stopping when an
+    //      iteration changes the scores by less than tolerance, or after maxIterations
+    // safety from rep exposure argument:
+    //    all fields are private, final, and immutable
+
+    /**
+     * Make an engine with the default damping, tolerance, and iteration limit.
+     */
+    public InfluenceRank() {
+        this(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Make an engine.
+     * @param damping probability of following an edge rather than jumping to a random
+     *        user.  Requires 0 <= damping < 1.
+     * @param tolerance iteration stops when the scores change by less than this in total.
+     *        Requires tolerance >= 0.
+     * @param maxIterations iteration stops after this many iterations.  Requires maxIterations >= 1.
+     */
+    public InfluenceRank(double damping, double tolerance, int maxIterations) {
+        if (!(damping >= 0 && damping < 1) || !(tolerance >= 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("requires 0 <= damping < 1, tolerance >= 0, maxIterations >= 1");
+        }
+        this.damping = damping;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Score the users of a graph, starting from equal scores, on the common pool.
+     * @param graph follows graph
+     * @return the scores of graph's users
+     */
+    public Scores rank(FollowsGraph graph) {
+        return rank(graph, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Score the users of a graph.
+     * @param graph follows graph
+     * @param previous scores to start from, usually of an earlier version of the graph,
+     *        matched to graph's users by username; users without a previous score start
+     *        with the average score.  Or null to start from equal scores.
+     * @param pool pool to iterate in
+     * @return the scores of graph's users
+     */
+    public Scores rank(FollowsGraph graph, Scores previous, ForkJoinPool pool) {
+        int n = graph.userCount();
+        if (n == 0) {
+            return new Scores(graph, new double[0], 0, true);
+        }
+        Iteration iteration = new Iteration(graph, damping);
+        double[] scores = startingScores(graph, previous);
+        double[] next = new double[n];
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < maxIterations) {
+            double change = iteration.step(scores, next, pool);
+            double[] swap = scores;
+            scores = next;
+            next = swap;
+            iterations++;
+            converged = change < tolerance;
+        }
+        return new Scores(graph, scores, iterations, converged);
+    }
+
+    // previous scores matched by username, renormalized to sum to 1
+    private static double[] startingScores(FollowsGraph graph, Scores previous) {
+        int n = graph.userCount();
+        double[] scores = new double[n];
+        if (previous == null) {
+            Arrays.fill(scores, 1.0 / n);
+            return scores;
+        }
+        int matched = 0;
+        double matchedTotal = 0;
+        for (int user = 0; user < n; user++) {
+            int old = previous.graph.id(graph.username(user));
+            scores[user] = old < 0 ? -1 : previous.scores[old];
+            if (old >= 0) {
+                matched++;
+                matchedTotal += scores[user];
+            }
+        }
+        double average = matched > 0 ? matchedTotal / matched : 1.0 / n;
+        double total = 0;
+        for (int user = 0; user < n; user++) {
+            if (scores[user] < 0) {
+                scores[user] = average;
+            }
+            total += scores[user];
+        }
+        for (int user = 0; user < n; user++) {
+            scores[user] = total > 0 ? scores[user] / total : 1.0 / n;
+        }
+        return scores;
+    }
+
+    @Override
+    public String toString() {
+        return "InfluenceRank(damping=" + damping + ", tolerance=" + tolerance
+                + ", maxIterations=" + maxIterations + ")";
+    }
+
+    /**
+     * Immutable PageRank scores of the users of a follows graph, summing to 1.
+     */
+    public static class Scores {
+
+        private final FollowsGraph graph;
+        private final double[] scores;
+        private final int iterations;
+        private final boolean converged;
+
+        // rep invariant:
+        //    scores.length == graph.userCount()
+        // abstraction function:
+        //    represents the score scores[u] of each user u of graph, reached after
+        //      iterations iterations, which converged or hit the iteration limit
+        // safety from rep exposure argument:
+        //    all fields are private and final, FollowsGraph is immutable, and scores is copied out
+
+        private Scores(FollowsGraph graph, double[] scores, int iterations, boolean converged) {
+            this.graph = graph;
+            this.scores = scores;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        /**
+         * @param username Twitter username, case-insensitive
+         * @return score of username, or 0 if username is not in the graph
+         */
+        public double score(String username) {
+            int id = graph.id(username);
+            return id < 0 ? 0 : scores[id];
+        }
+
+        /**
+         * @return array whose element u is the score of the graph's user u
+         */
+        public double[] scores() {
+            return scores.clone();
+        }
+
+        /**
+         * @return number of iterations run
+         */
+        public int iterations() {
+            return iterations;
+        }
+
+        /**
+         * @return true iff iteration stopped because the scores changed by less than the tolerance
+         */
+        public boolean converged() {
+            return converged;
+        }
+
+        /**
+         * @param k number of users wanted.  Requires k >= 0.
+         * @return the min(k, number of users) usernames with the highest scores, in descending
+         *         order of score, ties in alphabetical order
+         */
+        public List<String> top(int k) {
+            if (k < 0) {
+                throw new IllegalArgumentException("k must be nonnegative");
+            }
+            // ids are in alphabetical order, so ties go to the lower id
+            Comparator<Integer> better = (u, v) -> scores[u] != scores[v]
+                    ? Double.compare(scores[v], scores[u]) : Integer.compare(u, v);
+            PriorityQueue<Integer> worstFirst = new PriorityQueue<Integer>(Math.max(1, k), better.reversed());
+            for (int user = 0; user < scores.length && k > 0; user++) {
+                if (worstFirst.size() < k) {
+                    worstFirst.add(user);
+                } else if (better.compare(user, worstFirst.peek()) < 0) {
+                    worstFirst.poll();
+                    worstFirst.add(user);
+                }
+            }
+            List<Integer> best = new ArrayList<Integer>(worstFirst);
+            Collections.sort(best, better);
+            List<String> usernames = new ArrayList<String>(best.size());
+            for (int user : best) {
+                usernames.add(graph.username(user));
+            }
+            return usernames;
+        }
+
+        @Override
+        public String toString() {
+            return "Scores(" + scores.length + " users, " + iterations + " iterations"
+                    + (converged ? ", converged" : "") + ")";
+        }
+    }
+
+    /**
+     * One PageRank iteration over a graph: the graph reversed into CSR form, so each
+     * user pulls scores from their followers, plus each user's share per follow.
+     */
+    private static class Iteration {
+
+        private final int n;
+        private final double damping;
+        private final int[] outDegrees;
+        private final int[] inOffsets;
+        private final int[] inSources;
+        private final double[] shares;
+
+        Iteration(FollowsGraph graph, double damping) {
+            this.n = graph.userCount();
+            this.damping = damping;
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            outDegrees = new int[n];
+            inOffsets = new int[n + 1];
+            for (int user = 0; user < n; user++) {
+                outDegrees[user] = offsets[user + 1] - offsets[user];
+            }
+            for (int target : targets) {
+                inOffsets[target + 1]++;
+            }
+            for (int user = 0; user < n; user++) {
+                inOffsets[user + 1] += inOffsets[user];
+            }
+            // sources of each user come out ascending, since rows are visited in order
+            inSources = new int[targets.length];
+            int[] fill = Arrays.copyOf(inOffsets, n);
+            for (int user = 0; user < n; user++) {
+                for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+                    inSources[fill[targets[i]]++] = user;
+                }
+            }
+            shares = new double[n];
+        }
+
+        // compute next from scores, returning the L1 change
+        double step(double[] scores, double[] next, ForkJoinPool pool) {
+            double dangling = pool.invoke(new SweepTask(this, false, scores, next, 0, 0, n));
+            double base = (1 - damping) / n + damping * dangling / n;
+            return pool.invoke(new SweepTask(this, true, scores, next, base, 0, n));
+        }
+    }
+
+    /**
+     * One parallel pass over users [from, to) of an iteration. The share pass divides
+     * each user's score among the users they follow and returns the total score of
+     * users who follow nobody; the pull pass sums each user's incoming shares into
+     * next and returns the total change.
+     */
+    private static class SweepTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1L;
+
+        // users per leaf task
+        private static final int THRESHOLD = 1 << 12;
+
+        private final Iteration iteration;
+        private final boolean pull;
+        private final double[] scores, next;
+        private final double base;
+        private final int from, to;
+
+        SweepTask(Iteration iteration, boolean pull, double[] scores, double[] next, double base, int from, int to) {
+            this.iteration = iteration;
+            this.pull = pull;
+            this.scores = scores;
+            this.next = next;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                SweepTask left = new SweepTask(iteration, pull, scores, next, base, from, mid);
+                left.fork();
+                double right = new SweepTask(iteration, pull, scores, next, base, mid, to).compute();
+                return left.join() + right;
+            }
+            return pull ? pull() : share();
+        }
+
+        private double share() {
+            double dangling = 0;
+            for (int user = from; user < to; user++) {
+                int degree = iteration.outDegrees[user];
+                if (degree == 0) {
+                    iteration.shares[user] = 0;
+                    dangling += scores[user];
+                } else {
+                    iteration.shares[user] = scores[user] / degree;
+                }
+            }
+            return dangling;
+        }
+
+        private double pull() {
+            int[] inOffsets = iteration.inOffsets;
+            int[] inSources = iteration.inSources;
+            double[] shares = iteration.shares;
+            double damping = iteration.damping;
+            double change = 0;
+            for (int user = from; user < to; user++) {
+                double sum = 0;
+                for (int i = inOffsets[user]; i < inOffsets[user + 1]; i++) {
+                    sum += shares[inSources[i]];
+                }
+                next[user] = base + damping * sum;
+                change += Math.abs(next[user] - scores[user]);
+            }
+            return change;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a growable array of ints, for building lists of tweet ordinals
+ * without boxing them.
+ */
+class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    // rep invariant:
+    //    0 <= size <= values.length
+    // abstraction function:
+    //    represents the list values[0..size)
+
+    /**
+     * Append a value.
+     * @param value value to append
+     */
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * @return number of values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a new array of the values, in the order added
+     */
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
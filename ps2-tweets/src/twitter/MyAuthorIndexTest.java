@@ -0,0 +1,74 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyAuthorIndexTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * number of tweets: 0, 1, >1
+     * tweets per author: 0, 1, >1
+     * case: query and author in different cases, one author spelled in different cases
+     *
+     * Cover each part, then compare against Filter.writtenBy on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "talk", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        AuthorIndex index = new AuthorIndex(Collections.<Tweet>emptyList());
+
+        assertTrue(index.authors().isEmpty());
+        assertTrue(index.writtenBy("alyssa").isEmpty());
+        assertEquals(0, index.tweetCount("alyssa"));
+    }
+
+    @Test
+    public void testWrittenByCaseInsensitive() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals(Arrays.asList("alyssa", "bbitdiddle"), Arrays.asList(index.authors().toArray()));
+        assertEquals(Arrays.asList(tweet1, tweet3), Filter.writtenBy(index, "ALYSSA"));
+        assertEquals(Arrays.asList(tweet2), index.writtenBy("bbitdiddle"));
+        assertEquals(2, index.tweetCount("alyssa"));
+        assertTrue(index.writtenBy("nobody").isEmpty());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testWrittenByUnmodifiable() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1));
+
+        index.writtenBy("alyssa").remove(0);
+    }
+
+    @Test
+    public void testMatchesFilterWrittenBy() {
+        // covers all parts, randomly
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 300, 20);
+        AuthorIndex index = new AuthorIndex(tweets);
+
+        for (int i = 0; i < 25; i++) {
+            assertEquals(Filter.writtenBy(tweets, "User" + i), index.writtenBy("user" + i));
+        }
+    }
+}
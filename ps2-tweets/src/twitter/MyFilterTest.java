@@ -0,0 +1,110 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class MyFilterTest {
+
+    /*
+     * Testing strategy:
+     *
+     * For containing, partition on:
+     * matches: none, some, all; adjacent and far apart in the list
+     * and check that the matches keep their list order.
+     *
+     * For the parallel methods, partition on:
+     * number of tweets: 0, below one leaf task, many leaf tasks
+     * list: random access, linked
+     * matches: none, some, all
+     * pool parallelism: 1, >1
+     *
+     * Cover each part, then compare against the sequential methods on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<Tweet> none = Collections.emptyList();
+
+        assertTrue(Filter.writtenBy(none, "alyssa", pool).isEmpty());
+        assertTrue(Filter.inTimespan(none, new Timespan(d1, d1), pool).isEmpty());
+        assertTrue(Filter.containing(none, Arrays.asList("talk"), pool).isEmpty());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testContainingKeepsOrder() {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        List<Tweet> expected = new ArrayList<Tweet>();
+        for (int i = 0; i < 1000; i++) {
+            Tweet tweet = new Tweet(i, "alyssa", i % 3 == 0 || i % 7 == 0 ? "a Talk" : "a walk", d1);
+            tweets.add(tweet);
+            if (i % 3 == 0 || i % 7 == 0) {
+                expected.add(tweet);
+            }
+        }
+
+        assertEquals(expected, Filter.containing(tweets, Arrays.asList("talk")));
+        assertEquals(tweets, Filter.containing(tweets, Arrays.asList("talk", "A")));
+        assertTrue(Filter.containing(tweets, Arrays.asList("nosuchword")).isEmpty());
+        Collections.reverse(tweets);
+        Collections.reverse(expected);
+        assertEquals(expected, Filter.containing(tweets, Arrays.asList("talk")));
+    }
+
+    @Test
+    public void testFilterKeepsOrder() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 100000; i++) {
+            tweets.add(new Tweet(i, "alyssa", "talk", d1.plusSeconds(i)));
+        }
+
+        List<Tweet> odd = Filter.filter(tweets, tweet -> tweet.getId() % 2 == 1, pool);
+
+        assertEquals(50000, odd.size());
+        for (int i = 0; i < odd.size(); i++) {
+            assertEquals(2 * i + 1, odd.get(i).getId());
+        }
+        assertEquals(tweets, Filter.filter(new LinkedList<Tweet>(tweets), tweet -> true, pool));
+        assertTrue(Filter.filter(tweets, tweet -> false, pool).isEmpty());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testMatchesSequential() {
+        Random random = new Random(23);
+        for (int parallelism = 1; parallelism <= 4; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            for (int size : new int[] {10, 20000}) {
+                List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, size, 1 + random.nextInt(50));
+                String author = tweets.get(random.nextInt(size)).getAuthor().toUpperCase();
+                Instant start = d1.plusSeconds(random.nextInt(size));
+                Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(size)));
+                List<String> words = Arrays.asList("#tag" + random.nextInt(50), "@USER" + random.nextInt(50));
+
+                assertEquals(Filter.writtenBy(tweets, author), Filter.writtenBy(tweets, author, pool));
+                assertEquals(Filter.inTimespan(tweets, timespan), Filter.inTimespan(tweets, timespan, pool));
+                assertEquals(Filter.containing(tweets, words), Filter.containing(tweets, words, pool));
+            }
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class MyFollowsGraphBuilderTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * tweets added: none, one at a time, in several batches
+     * evidence: mention, shared hashtag, self-mention, same author in different cases
+     * build: once, again after more tweets, in a fork/join pool
+     * merge: empty builder, itself, overlapping authors and hashtags
+     * parallelism: 1, >1 threads; tweets fewer than, many more than one parallel part
+     *
+     * Cover each part, and compare against the original algorithm on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoTweets() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+
+        assertTrue(builder.build().isEmpty());
+        assertEquals(0, builder.authorCount());
+    }
+
+    @Test
+    public void testBuildAgainAfterMoreTweets() {
+        FollowsGraphBuilder builder = new FollowsGraphBuilder()
+                .add(new Tweet(1, "Alyssa", "@ALYSSA @bbitdiddle #hype", d1));
+
+        Map<String, Set<String>> first = builder.build();
+        builder.add(new Tweet(2, "ben", "#HYPE", d1)).add(new Tweet(3, "alyssa", "@carol", d1));
+        Map<String, Set<String>> second = builder.build();
+
+        assertEquals(Collections.singletonMap("alyssa", set("bbitdiddle")), first);
+        assertEquals(2, builder.authorCount());
+        assertEquals(set("bbitdiddle", "ben", "carol"), second.get("alyssa"));
+        assertEquals(set("alyssa"), second.get("ben"));
+    }
+
+    @Test
+    public void testBatchesMatchReference() {
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 2000, 60);
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
+        for (int from = 0; from < tweets.size(); from += 300) {
+            builder.addAll(tweets.subList(from, Math.min(tweets.size(), from + 300)));
+        }
+
+        assertEquals(MySocialNetworkTest.referenceFollowsGraph(tweets), builder.build());
+    }
+
+    @Test
+    public void testMergeMatchesAddAll() {
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 600, 40);
+        FollowsGraphBuilder first = new FollowsGraphBuilder().addAll(tweets.subList(0, 250));
+        FollowsGraphBuilder second = new FollowsGraphBuilder().addAll(tweets.subList(250, 600));
+
+        first.merge(new FollowsGraphBuilder()).merge(first).merge(second);
+
+        assertEquals(new FollowsGraphBuilder().addAll(tweets).build(), first.build());
+        assertEquals(MySocialNetworkTest.referenceFollowsGraph(tweets.subList(250, 600)), second.build());
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 40000, 200);
+        Map<String, Set<String>> expected = new FollowsGraphBuilder().addAll(tweets).build();
+
+        for (int threads : new int[] {1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertEquals(expected, SocialNetwork.guessFollowsGraph(tweets, pool));
+                List<Tweet> few = tweets.subList(0, 100);
+                assertEquals(new FollowsGraphBuilder().addAll(few).build(), SocialNetwork.guessFollowsGraph(few, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static Set<String> set(String... elements) {
+        return new HashSet<String>(Arrays.asList(elements));
+    }
+}
@@ -0,0 +1,134 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MyFollowsGraphTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * users: 0, 1, >1; followed users that are not keys; keys that follow nobody
+     * case: usernames in mixed case, the same user in different cases
+     * edges: none, some, a self-follow
+     * influencers: ties in follower count, no ties
+     * top k: k = 0, 1, < users, = users, > users; negative k
+     *
+     * Cover each part, then compare influencers against SocialNetwork.influencers
+     * on graphs guessed from random tweets.
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        FollowsGraph graph = FollowsGraph.fromMap(Collections.<String, Set<String>>emptyMap());
+
+        assertEquals(0, graph.userCount());
+        assertEquals(0, graph.edgeCount());
+        assertTrue(graph.toMap().isEmpty());
+        assertTrue(SocialNetwork.influencers(graph).isEmpty());
+    }
+
+    @Test
+    public void testFromMapInternsAlphabetically() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("Ernie", set("BERT", "cookie", "ernie"));
+        followsGraph.put("cookie", set());
+
+        FollowsGraph graph = FollowsGraph.fromMap(followsGraph);
+
+        assertEquals(Arrays.asList("bert", "cookie", "ernie"), graph.usernames());
+        assertEquals(2, graph.id("ERNIE"));
+        assertEquals(-1, graph.id("oscar"));
+        assertEquals(2, graph.edgeCount());
+        assertArrayEquals(new int[] {0, 1}, graph.follows(graph.id("ernie")));
+        assertEquals(0, graph.followCount(graph.id("bert")));
+        assertArrayEquals(new int[] {1, 1, 0}, graph.followerCounts());
+    }
+
+    @Test
+    public void testToMapKeepsEveryUser() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("ernie", set("bert"));
+
+        Map<String, Set<String>> expected = new HashMap<String, Set<String>>();
+        expected.put("ernie", set("bert"));
+        expected.put("bert", set());
+
+        assertEquals(expected, FollowsGraph.fromMap(followsGraph).toMap());
+    }
+
+    @Test
+    public void testInfluencersTiesAlphabetical() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("a", set("c", "d"));
+        followsGraph.put("b", set("c", "d"));
+        followsGraph.put("e", set("c"));
+
+        assertEquals(Arrays.asList("c", "d", "a", "b", "e"), SocialNetwork.influencers(FollowsGraph.fromMap(followsGraph)));
+    }
+
+    @Test
+    public void testMatchesMapInfluencers() {
+        // covers all parts, randomly
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 500, 40);
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+
+        FollowsGraph graph = FollowsGraph.fromMap(followsGraph);
+
+        assertEquals(SocialNetwork.influencers(followsGraph), SocialNetwork.influencers(graph));
+        assertEquals(graph.usernames(), FollowsGraph.fromMap(graph.toMap()).usernames());
+        assertEquals(graph.toMap(), FollowsGraph.fromMap(graph.toMap()).toMap());
+    }
+
+    @Test
+    public void testTopInfluencers() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("a", set("c", "d"));
+        followsGraph.put("b", set("c", "d"));
+        followsGraph.put("e", set("c"));
+        FollowsGraph graph = FollowsGraph.fromMap(followsGraph);
+
+        assertTrue(SocialNetwork.influencers(graph, 0).isEmpty());
+        assertEquals(Arrays.asList("c"), SocialNetwork.influencers(graph, 1));
+        assertEquals(Arrays.asList("c", "d", "a"), SocialNetwork.influencers(followsGraph, 3));
+        assertEquals(SocialNetwork.influencers(graph), SocialNetwork.influencers(graph, 5));
+        assertEquals(SocialNetwork.influencers(graph), SocialNetwork.influencers(graph, 100));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTopInfluencersNegativeK() {
+        SocialNetwork.influencers(FollowsGraph.fromMap(Collections.<String, Set<String>>emptyMap()), -1);
+    }
+
+    @Test
+    public void testTopInfluencersMatchPrefix() {
+        // covers k below, at, and above the number of users, with many ties
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(new Random(6005), 300, 50);
+        FollowsGraph graph = FollowsGraph.fromMap(SocialNetwork.guessFollowsGraph(tweets));
+        List<String> all = SocialNetwork.influencers(graph);
+
+        for (int k = 0; k <= all.size() + 2; k++) {
+            assertEquals(all.subList(0, Math.min(k, all.size())), SocialNetwork.influencers(graph, k));
+        }
+    }
+
+    private static Set<String> set(String... elements) {
+        return new HashSet<String>(Arrays.asList(elements));
+    }
+}
@@ -0,0 +1,161 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class MyHashtagUsersTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * hashtag users: 0, <= threshold, just over threshold, far over it
+     * case: the same hashtag or author in different cases
+     * threshold: 0, > 0
+     * merge: exact with exact, exact with sketched (either side), sketched with
+     *   sketched, union crossing the threshold; different settings
+     * pool: 1 thread, several threads
+     *
+     * Cover each part, then compare against Extract.getHashtagUsers on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testExactBelowThreshold() {
+        HashtagUsers counts = Extract.getHashtagUserCounts(Arrays.asList(
+                new Tweet(1, "Alyssa", "#MIT rocks", d1),
+                new Tweet(2, "alyssa", "#mit again #java", d1),
+                new Tweet(3, "bbitdiddle", "#mit", d1)), 0.01, 2);
+
+        assertEquals(new HashSet<String>(Arrays.asList("mit", "java")), counts.hashtags());
+        assertEquals(2, counts.userCount("MIT"));
+        assertTrue(counts.isExact("mit"));
+        assertEquals(new HashSet<String>(Arrays.asList("alyssa", "bbitdiddle")), counts.exactUsers("mit"));
+        assertEquals(0, counts.userCount("6005"));
+        assertEquals(Collections.emptySet(), counts.exactUsers("6005"));
+    }
+
+    @Test
+    public void testSketchedAboveThreshold() {
+        HashtagUsers counts = new HashtagUsers(0.01, 2);
+        for (int i = 0; i < 3; i++) {
+            counts.add(new Tweet(i, "user" + i, "#viral", d1));
+        }
+
+        assertFalse(counts.isExact("VIRAL"));
+        assertEquals(3, counts.userCount("viral"));
+    }
+
+    @Test
+    public void testViralHashtagWithinError() {
+        HashtagUsers counts = new HashtagUsers(0.02, 100);
+        for (int i = 0; i < 100000; i++) {
+            counts.add(new Tweet(i, "user" + i, "#viral #viral", d1));
+        }
+
+        assertEquals(100000, counts.userCount("viral"), 4 * 0.02 * 100000);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testExactUsersOfSketched() {
+        HashtagUsers counts = new HashtagUsers(0.01, 0);
+        counts.add(new Tweet(1, "alyssa", "#mit", d1));
+
+        counts.exactUsers("mit");
+    }
+
+    @Test
+    public void testMergeCrossesThreshold() {
+        HashtagUsers left = new HashtagUsers(0.01, 3);
+        HashtagUsers right = new HashtagUsers(0.01, 3);
+        left.add(new Tweet(1, "a", "#mit #java", d1)).add(new Tweet(2, "b", "#mit", d1));
+        right.add(new Tweet(3, "b", "#mit", d1)).add(new Tweet(4, "c", "#mit #java", d1));
+
+        left.merge(right);
+
+        assertTrue(left.isExact("mit"));
+        assertEquals(3, left.userCount("mit"));
+
+        left.merge(new HashtagUsers(0.01, 3).add(new Tweet(5, "d", "#mit", d1)));
+
+        assertFalse(left.isExact("mit"));
+        assertEquals(4, left.userCount("mit"));
+        assertEquals(2, left.userCount("java"));
+    }
+
+    @Test
+    public void testMergeSketchedIntoExact() {
+        HashtagUsers exact = new HashtagUsers(0.01, 5);
+        HashtagUsers sketched = new HashtagUsers(0.01, 5);
+        exact.add(new Tweet(1, "user0", "#mit", d1));
+        for (int i = 1; i < 10; i++) {
+            sketched.add(new Tweet(i, "user" + i, "#mit", d1));
+        }
+
+        exact.merge(sketched);
+        sketched.merge(new HashtagUsers(0.01, 5).add(new Tweet(11, "user0", "#mit", d1)));
+
+        assertFalse(exact.isExact("mit"));
+        assertEquals(10, exact.userCount("mit"));
+        assertEquals(10, sketched.userCount("mit"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentThreshold() {
+        new HashtagUsers(0.01, 5).merge(new HashtagUsers(0.01, 6));
+    }
+
+    @Test
+    public void testMatchesGetHashtagUsers() {
+        Random random = new Random(19);
+        for (int trial = 0; trial < 5; trial++) {
+            List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 30000, 1 + random.nextInt(2000));
+            Map<String, Set<String>> expected = Extract.getHashtagUsers(tweets);
+            int threshold = random.nextInt(20);
+            HashtagUsers sequential = new HashtagUsers(0.01, threshold).addAll(tweets);
+            List<HashtagUsers> results = new ArrayList<HashtagUsers>();
+            results.add(sequential);
+            for (int threads : new int[] {1, 3}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    results.add(HashtagUsers.of(tweets, pool, 0.01, threshold));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            for (HashtagUsers counts : results) {
+                assertEquals(expected.keySet(), counts.hashtags());
+                for (Map.Entry<String, Set<String>> entry : expected.entrySet()) {
+                    int users = entry.getValue().size();
+                    assertEquals(users <= threshold, counts.isExact(entry.getKey()));
+                    if (users <= threshold) {
+                        assertEquals(entry.getValue(), counts.exactUsers(entry.getKey()));
+                    } else {
+                        // within 4 standard errors, plus a few collisions among few users
+                        assertEquals(users, counts.userCount(entry.getKey()), 3 + 0.04 * users);
+                    }
+                    // the same counts however the tweets were split
+                    assertEquals(sequential.userCount(entry.getKey()), counts.userCount(entry.getKey()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class MyHyperLogLogTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * strings added: none, one, repeated, small (linear counting range), large
+     * precision: MIN_PRECISION, middle, MAX_PRECISION; from an error bound
+     * merge: disjoint sketches, overlapping, with itself, different precisions
+     * arguments: precision out of range, error out of range, error too small
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new HyperLogLog(HyperLogLog.MIN_PRECISION).estimate());
+        assertEquals(0, new HyperLogLog(HyperLogLog.MAX_PRECISION).estimate());
+    }
+
+    @Test
+    public void testOneRepeated() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("bitdiddle");
+        }
+
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    public void testSmallCountsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("user" + i);
+        }
+
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCountsWithinError() {
+        for (int precision : new int[] {HyperLogLog.MIN_PRECISION, 10, 14}) {
+            for (int count : new int[] {10000, 1000000}) {
+                HyperLogLog sketch = new HyperLogLog(precision);
+                for (int i = 0; i < count; i++) {
+                    sketch.add("user" + i);
+                }
+                // within 4 standard errors
+                assertEquals("precision " + precision + ", count " + count,
+                        count, sketch.estimate(), 4 * sketch.relativeError() * count);
+            }
+        }
+    }
+
+    @Test
+    public void testWithError() {
+        HyperLogLog sketch = HyperLogLog.withError(0.01);
+
+        assertEquals(14, sketch.precision());
+        assertTrue(sketch.relativeError() <= 0.01);
+        assertEquals(HyperLogLog.MIN_PRECISION, HyperLogLog.withError(0.5).precision());
+    }
+
+    @Test
+    public void testMergeIsUnion() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        HyperLogLog union = new HyperLogLog(12);
+        for (int i = 0; i < 50000; i++) {
+            left.add("user" + i);
+            union.add("user" + i);
+        }
+        for (int i = 30000; i < 80000; i++) {
+            right.add("user" + i);
+            union.add("user" + i);
+        }
+        HyperLogLog copy = left.copy();
+
+        left.merge(right);
+
+        assertEquals(union.estimate(), left.estimate());
+        assertEquals(80000, left.estimate(), 4 * left.relativeError() * 80000);
+        assertTrue(copy.estimate() < left.estimate());
+        assertEquals(left.estimate(), left.merge(left).estimate());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentPrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionTooSmall() {
+        new HyperLogLog(HyperLogLog.MIN_PRECISION - 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionTooLarge() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testErrorTooSmall() {
+        HyperLogLog.withError(0.001);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testErrorOutOfRange() {
+        HyperLogLog.withError(0);
+    }
+}
@@ -0,0 +1,132 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MyIncrementalSocialNetworkTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * tweets: none, one, several; added one at a time, in batches
+     * evidence: mention of a non-author, of self; hashtag shared later by a new
+     *   author, reused by the same author; none
+     * case: the same user or hashtag in different cases
+     * influencers: all, top k with k = 0, < users, > users; negative k
+     *
+     * Cover each part, then compare against SocialNetwork.guessFollowsGraph and
+     * SocialNetwork.influencers after every tweet of random streams.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+
+        assertTrue(network.followsGraph().isEmpty());
+        assertTrue(network.influencers().isEmpty());
+        assertEquals(0, network.userCount());
+        assertTrue(network.follows("anyone").isEmpty());
+    }
+
+    @Test
+    public void testMentionsAndSelfMention() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        network.add(new Tweet(1, "Ernie", "@Bert @ERNIE hi", d1));
+
+        assertEquals(Collections.singleton("bert"), network.follows("ERNIE"));
+        assertEquals(1, network.followerCount("bert"));
+        assertEquals(0, network.followerCount("ernie"));
+        assertEquals(Arrays.asList("bert", "ernie"), network.influencers());
+        // bert is followed but not an author
+        assertFalse(network.followsGraph().containsKey("bert"));
+    }
+
+    @Test
+    public void testHashtagSharedLater() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        network.add(new Tweet(1, "bert", "#Cookies", d1));
+        network.add(new Tweet(2, "bert", "more #cookies", d1));
+        assertTrue(network.follows("bert").isEmpty());
+
+        network.addAll(Arrays.asList(new Tweet(3, "COOKIE", "#COOKIES", d1), new Tweet(4, "oscar", "trash", d1)));
+
+        assertEquals(Collections.singleton("cookie"), network.follows("bert"));
+        assertEquals(Collections.singleton("bert"), network.follows("cookie"));
+        assertTrue(network.follows("oscar").isEmpty());
+        assertEquals(Arrays.asList("bert", "cookie", "oscar"), network.influencers());
+        assertEquals(Arrays.asList("bert"), network.influencers(1));
+        assertEquals(Collections.emptyList(), network.influencers(0));
+        assertEquals(network.influencers(), network.influencers(10));
+    }
+
+    @Test
+    public void testFollowsViewIsLive() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        network.add(new Tweet(1, "ernie", "@bert", d1));
+        Set<String> follows = network.follows("ernie");
+
+        network.add(new Tweet(2, "ernie", "@cookie", d1));
+
+        assertEquals(new HashSet<String>(Arrays.asList("bert", "cookie")), follows);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testFollowsUnmodifiable() {
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        network.add(new Tweet(1, "ernie", "@bert", d1));
+
+        network.follows("ernie").add("oscar");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInfluencersNegative() {
+        new IncrementalSocialNetwork().influencers(-1);
+    }
+
+    @Test
+    public void testMatchesGuessFollowsGraphAfterEveryTweet() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 5; trial++) {
+            List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 200, 1 + random.nextInt(30));
+            IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+            for (int i = 0; i < tweets.size(); i++) {
+                network.add(tweets.get(i));
+                List<Tweet> prefix = tweets.subList(0, i + 1);
+                assertEquals(SocialNetwork.guessFollowsGraph(prefix), network.followsGraph());
+                assertEquals(SocialNetwork.influencers(network.followsGraph()), network.influencers());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchesMatchGuessFollowsGraph() {
+        Random random = new Random(18);
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 5000, 300);
+        IncrementalSocialNetwork network = new IncrementalSocialNetwork();
+        for (int from = 0; from < tweets.size(); from += 1000) {
+            network.addAll(tweets.subList(from, from + 1000));
+            List<Tweet> prefix = tweets.subList(0, from + 1000);
+            assertEquals(SocialNetwork.guessFollowsGraph(prefix), network.followsGraph());
+            assertEquals(SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(prefix)), network.influencers());
+            assertEquals(SocialNetwork.influencers(FollowsGraph.fromMap(network.followsGraph()), 10),
+                    network.influencers(10));
+        }
+    }
+}
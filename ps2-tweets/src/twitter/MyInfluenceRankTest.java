@@ -0,0 +1,243 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class MyInfluenceRankTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * graph: empty, one user, users who follow nobody, a cycle, > THRESHOLD users
+     * start: equal scores, previous scores of the same graph, of a different graph
+     * stopping: converged, iteration limit reached
+     * pool: 1 thread, several threads
+     * parameters: valid, damping out of range, negative tolerance, maxIterations < 1
+     * top k: k = 0, k < users, k > users; ties
+     *
+     * Cover each part, then compare against a plain power iteration over the map form
+     * on graphs guessed from random tweets.
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        InfluenceRank.Scores scores = new InfluenceRank().rank(
+                FollowsGraph.fromMap(Collections.<String, Set<String>>emptyMap()));
+
+        assertEquals(0, scores.scores().length);
+        assertTrue(scores.converged());
+        assertEquals(0, scores.score("anyone"), 0);
+        assertTrue(scores.top(5).isEmpty());
+    }
+
+    @Test
+    public void testOneUser() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("Alyssa", set());
+
+        InfluenceRank.Scores scores = new InfluenceRank().rank(FollowsGraph.fromMap(followsGraph));
+
+        assertEquals(1, scores.score("ALYSSA"), EPSILON);
+        assertTrue(scores.converged());
+        assertEquals(Arrays.asList("alyssa"), scores.top(3));
+    }
+
+    @Test
+    public void testCycleIsUniform() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("a", set("b"));
+        followsGraph.put("b", set("c"));
+        followsGraph.put("c", set("a"));
+
+        InfluenceRank.Scores scores = new InfluenceRank().rank(FollowsGraph.fromMap(followsGraph));
+
+        for (double score : scores.scores()) {
+            assertEquals(1.0 / 3, score, EPSILON);
+        }
+        // ties in alphabetical order
+        assertEquals(Arrays.asList("a", "b"), scores.top(2));
+    }
+
+    @Test
+    public void testDanglingUsersShareScore() {
+        // nobody follows anyone back: bert and ernie are dangling
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("cookie", set("bert", "ernie"));
+        followsGraph.put("oscar", set("bert"));
+
+        FollowsGraph graph = FollowsGraph.fromMap(followsGraph);
+        InfluenceRank.Scores scores = new InfluenceRank().rank(graph);
+
+        assertTrue(scores.converged());
+        assertEquals(1, sum(scores.scores()), EPSILON);
+        assertArrayEquals(powerIteration(graph.toMap(), 0.85, 200), scores.scores(), EPSILON);
+        assertEquals(Arrays.asList("bert", "ernie", "cookie", "oscar"), scores.top(10));
+        assertEquals(Collections.emptyList(), scores.top(0));
+    }
+
+    @Test
+    public void testIterationLimit() {
+        Map<String, Set<String>> followsGraph = new HashMap<String, Set<String>>();
+        followsGraph.put("a", set("b"));
+        followsGraph.put("b", set());
+
+        InfluenceRank.Scores scores = new InfluenceRank(0.85, 0, 1).rank(FollowsGraph.fromMap(followsGraph));
+
+        assertEquals(1, scores.iterations());
+        assertFalse(scores.converged());
+        assertEquals(1, sum(scores.scores()), EPSILON);
+    }
+
+    @Test
+    public void testWarmStartFromSameGraph() {
+        FollowsGraph graph = randomGraph(new Random(16), 2000, 300);
+        InfluenceRank rank = new InfluenceRank();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            InfluenceRank.Scores cold = rank.rank(graph, null, pool);
+            InfluenceRank.Scores warm = rank.rank(graph, cold, pool);
+
+            assertTrue(cold.converged());
+            assertTrue(warm.converged());
+            assertTrue("expected warm start to take fewer iterations", warm.iterations() < cold.iterations());
+            assertArrayEquals(cold.scores(), warm.scores(), 1e-8);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWarmStartFromDifferentGraph() {
+        Random random = new Random(17);
+        List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 3000, 400);
+        FollowsGraph before = FollowsGraph.fromMap(SocialNetwork.guessFollowsGraph(tweets.subList(0, 2500)));
+        FollowsGraph after = FollowsGraph.fromMap(SocialNetwork.guessFollowsGraph(tweets));
+        InfluenceRank rank = new InfluenceRank();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            InfluenceRank.Scores warm = rank.rank(after, rank.rank(before, null, pool), pool);
+            InfluenceRank.Scores cold = rank.rank(after, null, pool);
+
+            assertTrue(warm.converged());
+            assertArrayEquals(cold.scores(), warm.scores(), 1e-8);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchesPowerIterationInAnyPool() {
+        Random random = new Random(18);
+        for (int trial = 0; trial < 3; trial++) {
+            // more users than one leaf task takes
+            FollowsGraph graph = randomGraph(random, 20000, 6000);
+            double[] expected = powerIteration(graph.toMap(), 0.85, 200);
+            double[] single = null;
+            for (int threads : new int[] {1, 4}) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    InfluenceRank.Scores scores = new InfluenceRank().rank(graph, null, pool);
+                    assertTrue(scores.converged());
+                    assertArrayEquals(expected, scores.scores(), 1e-8);
+                    if (single == null) {
+                        single = scores.scores();
+                    } else {
+                        assertTrue("expected the same scores in any pool", Arrays.equals(single, scores.scores()));
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testDampingOutOfRange() {
+        new InfluenceRank(1, 1e-6, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeTolerance() {
+        new InfluenceRank(0.85, -1, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoIterations() {
+        new InfluenceRank(0.85, 1e-6, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTopNegative() {
+        new InfluenceRank().rank(FollowsGraph.fromMap(Collections.<String, Set<String>>emptyMap())).top(-1);
+    }
+
+    // plain PageRank over a social network, in id (alphabetical) order
+    private static double[] powerIteration(Map<String, Set<String>> followsGraph, double damping, int iterations) {
+        List<String> users = FollowsGraph.fromMap(followsGraph).usernames();
+        Map<String, Double> scores = new HashMap<String, Double>();
+        for (String user : users) {
+            scores.put(user, 1.0 / users.size());
+        }
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double dangling = 0;
+            Map<String, Double> next = new HashMap<String, Double>();
+            for (String user : users) {
+                next.put(user, 0.0);
+            }
+            for (String user : users) {
+                Set<String> follows = followsGraph.get(user);
+                if (follows.isEmpty()) {
+                    dangling += scores.get(user);
+                }
+                for (String followed : follows) {
+                    next.put(followed, next.get(followed) + scores.get(user) / follows.size());
+                }
+            }
+            for (String user : users) {
+                next.put(user, (1 - damping) / users.size() + damping * (next.get(user) + dangling / users.size()));
+            }
+            scores = next;
+        }
+        double[] result = new double[users.size()];
+        for (int id = 0; id < result.length; id++) {
+            result[id] = scores.get(users.get(id));
+        }
+        return result;
+    }
+
+    private static FollowsGraph randomGraph(Random random, int tweets, int authors) {
+        return FollowsGraph.fromMap(SocialNetwork.guessFollowsGraph(
+                MySocialNetworkTest.randomTweets(random, tweets, authors)));
+    }
+
+    private static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static Set<String> set(String... elements) {
+        return new HashSet<String>(Arrays.asList(elements));
+    }
+}
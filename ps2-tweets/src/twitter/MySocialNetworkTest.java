@@ -5,7 +5,11 @@ import static org.junit.Assert.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -24,7 +28,8 @@ public class MySocialNetworkTest {
      * number distinct authors: 1, >1
      * number of common hashtags: 1, >1
      * 
-     * Cover each category
+     * Cover each category, then compare against the original per-tweet
+     * algorithm on random tweets with authors in mixed case.
      */
     
     private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
@@ -64,4 +69,57 @@ public class MySocialNetworkTest {
         assertTrue("expected 1 user in follow set", followsGraph.get("otheruser").size() == 1 && followsGraph.get("otheruser").contains("user"));
     }
 
+    @Test
+    public void testGuessFollowsMatchesReference() {
+        // covers all parts, randomly
+        List<Tweet> tweets = randomTweets(new Random(6005), 400, 30);
+        
+        assertEquals(referenceFollowsGraph(tweets), SocialNetwork.guessFollowsGraph(tweets));
+    }
+    
+    /*
+     * Random tweets by authors user0..user(authors-1) in random case, each mentioning
+     * and hashtagging a few users and tags.
+     */
+    static List<Tweet> randomTweets(Random random, int count, int authors) {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < count; i++) {
+            String author = "user" + random.nextInt(authors);
+            if (random.nextBoolean()) {
+                author = author.toUpperCase();
+            }
+            StringBuilder text = new StringBuilder("hello");
+            for (int j = random.nextInt(4); j > 0; j--) {
+                text.append(random.nextBoolean() ? " @User" : " @user").append(random.nextInt(authors + 5));
+            }
+            for (int j = random.nextInt(3); j > 0; j--) {
+                text.append(random.nextBoolean() ? " #Tag" : " #tag").append(random.nextInt(authors));
+            }
+            tweets.add(new Tweet(i, author, text.toString(), d1.plusSeconds(i)));
+        }
+        return tweets;
+    }
+    
+    /*
+     * The original guessFollowsGraph, searching all tweets for each tweet's author.
+     */
+    static Map<String, Set<String>> referenceFollowsGraph(List<Tweet> tweets) {
+        Map<String, Set<String>> network = new HashMap<String, Set<String>>();
+        Map<String, Set<String>> hashtags = Extract.getHashtagUsers(tweets);
+        for (Tweet tweet : tweets) {
+            String username = tweet.getAuthor().toLowerCase();
+            Set<String> follows = new HashSet<String>();
+            for (String mention : Extract.getMentionedUsers(Filter.writtenBy(tweets, username))) {
+                follows.add(mention.toLowerCase());
+            }
+            for (Set<String> hashtagUsers : hashtags.values()) {
+                if (hashtagUsers.contains(username)) {
+                    follows.addAll(hashtagUsers);
+                }
+            }
+            follows.remove(username);
+            network.put(username, follows);
+        }
+        return network;
+    }
 }
@@ -0,0 +1,257 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MyTrendingHashtagsTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * counter: exact, sketched
+     * tweets: none, in one bucket, across buckets; in order, late within the window,
+     *   late beyond it; hashtag repeated in a tweet, in different cases
+     * window: moved by tweets, by advanceTo, past every bucket at once
+     * top: n = 0, n < hashtags, n > hashtags; ties; whole window, timespan of some
+     *   buckets, timespan outside the window
+     * arguments: invalid window, buckets, epsilon, delta, capacity, n
+     *
+     * Cover each part, then compare exact counters against counting the tweets of the
+     * window directly, and sketched counters against exact ones, on random streams.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofMinutes(15), 15);
+
+        assertTrue(trending.top(10).isEmpty());
+        assertEquals(0, trending.count("mit"));
+        assertEquals(Instant.EPOCH, trending.window().getStart());
+        assertTrue(trending.top(10, new Timespan(d1, d1.plus(MINUTE))).isEmpty());
+    }
+
+    @Test
+    public void testCountsTweetsCaseInsensitively() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofMinutes(15), 15);
+        trending.add(tweet(1, d1, "#MIT #mit #java"));
+        trending.add(tweet(2, d1.plusSeconds(90), "#mit"));
+        trending.add(tweet(3, d1.plusSeconds(100), "no hashtags"));
+
+        assertEquals(2, trending.count("MIT"));
+        assertEquals(1, trending.count("java"));
+        assertEquals(Arrays.asList("mit", "java"), trending.top(5));
+        assertEquals(Arrays.asList("mit"), trending.top(1));
+        assertEquals(Collections.emptyList(), trending.top(0));
+    }
+
+    @Test
+    public void testTiesAlphabetical() {
+        TrendingHashtags trending = new TrendingHashtags(MINUTE, 1);
+        trending.add(tweet(1, d1, "#zeta #alpha #mu"));
+
+        assertEquals(Arrays.asList("alpha", "mu", "zeta"), trending.top(3));
+    }
+
+    @Test
+    public void testExpiry() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofMinutes(3), 3);
+        trending.add(tweet(1, d1, "#old"));
+        trending.add(tweet(2, d1.plus(Duration.ofMinutes(2)), "#new"));
+        assertEquals(Arrays.asList("new", "old"), trending.top(5));
+
+        trending.add(tweet(3, d1.plus(Duration.ofMinutes(3)), "#newer"));
+
+        assertEquals(0, trending.count("old"));
+        assertEquals(Arrays.asList("new", "newer"), trending.top(5));
+        assertEquals(d1.plus(MINUTE), trending.window().getStart());
+        assertEquals(d1.plus(Duration.ofMinutes(4)).minusNanos(1), trending.window().getEnd());
+
+        trending.advanceTo(d1.plus(Duration.ofHours(1)));
+
+        assertTrue(trending.top(5).isEmpty());
+    }
+
+    @Test
+    public void testLateTweets() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofMinutes(3), 3);
+        trending.add(tweet(1, d1.plus(Duration.ofMinutes(5)), "#now"));
+
+        assertTrue(trending.add(tweet(2, d1.plus(Duration.ofMinutes(3)), "#late")));
+        assertFalse(trending.add(tweet(3, d1.plus(Duration.ofMinutes(2)), "#tooLate")));
+
+        assertEquals(1, trending.count("late"));
+        assertEquals(0, trending.count("toolate"));
+    }
+
+    @Test
+    public void testTopInTimespan() {
+        TrendingHashtags trending = new TrendingHashtags(Duration.ofMinutes(15), 15);
+        trending.add(tweet(1, d1, "#early"));
+        trending.add(tweet(2, d1.plusSeconds(30), "#early"));
+        trending.add(tweet(3, d1.plus(Duration.ofMinutes(10)), "#late"));
+
+        // buckets overlapping the timespan count whole
+        assertEquals(Arrays.asList("early"), trending.top(5, new Timespan(d1.plusSeconds(45), d1.plusSeconds(50))));
+        assertEquals(Arrays.asList("late"),
+                trending.top(5, new Timespan(d1.plus(Duration.ofMinutes(5)), Instant.MAX)));
+        assertEquals(Arrays.asList("early", "late"), trending.top(5, new Timespan(Instant.MIN, Instant.MAX)));
+        assertTrue(trending.top(5, new Timespan(d1.minus(Duration.ofDays(1)), d1.minusSeconds(1))).isEmpty());
+    }
+
+    @Test
+    public void testSketchedNeverUndercounts() {
+        Random random = new Random(18);
+        TrendingHashtags sketched = TrendingHashtags.sketched(Duration.ofMinutes(10), 10, 0.01, 0.01, 20);
+        TrendingHashtags exact = new TrendingHashtags(Duration.ofMinutes(10), 10);
+        List<Tweet> tweets = randomTweets(random, 20000, 2000);
+        for (Tweet tweet : tweets) {
+            sketched.add(tweet);
+            exact.add(tweet);
+        }
+        long uses = 0;
+        for (int tag = 0; tag < 2000; tag++) {
+            uses += exact.count("tag" + tag);
+        }
+        for (int tag = 0; tag < 2000; tag++) {
+            long count = exact.count("tag" + tag);
+            assertTrue(sketched.count("tag" + tag) >= count);
+            // within the bound with high probability
+            assertTrue(sketched.count("tag" + tag) <= count + 0.01 * uses);
+        }
+        // the skewed stream has clear heavy hitters
+        assertEquals(exact.top(5), sketched.top(5));
+    }
+
+    @Test
+    public void testSketchedSeparatesEqualHashCodes() {
+        // "az" and "b[" are both hashtags, with the same String.hashCode()
+        assertEquals("az".hashCode(), "b[".hashCode());
+        TrendingHashtags sketched = TrendingHashtags.sketched(Duration.ofMinutes(10), 10, 0.01, 0.01, 20);
+        for (int i = 0; i < 100; i++) {
+            sketched.add(tweet(i, d1, "#az"));
+        }
+
+        assertEquals(100, sketched.count("az"));
+        assertEquals(0, sketched.count("b["));
+    }
+
+    @Test
+    public void testExactMatchesWindowCounts() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 5; trial++) {
+            Duration window = Duration.ofMinutes(1 + random.nextInt(20));
+            int buckets = (int) window.toMinutes();
+            TrendingHashtags trending = new TrendingHashtags(window, buckets);
+            List<Tweet> tweets = randomTweets(random, 2000, 30);
+            List<Tweet> counted = new ArrayList<Tweet>();
+            for (Tweet tweet : tweets) {
+                if (trending.add(tweet)) {
+                    counted.add(tweet);
+                }
+                if (tweet.getId() % 50 == 0) {
+                    Map<String, Long> expected = windowCounts(counted, trending.window());
+                    for (String hashtag : expected.keySet()) {
+                        assertEquals(expected.get(hashtag).longValue(), trending.count(hashtag));
+                    }
+                    assertEquals(top(expected, 5), trending.top(5));
+                }
+            }
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWindowNotDivisible() {
+        new TrendingHashtags(Duration.ofMillis(10), 3);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWindowZero() {
+        new TrendingHashtags(Duration.ZERO, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadEpsilon() {
+        TrendingHashtags.sketched(MINUTE, 1, 0, 0.01, 10);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadCapacity() {
+        TrendingHashtags.sketched(MINUTE, 1, 0.01, 0.01, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeN() {
+        new TrendingHashtags(MINUTE, 1).top(-1);
+    }
+
+    /*
+     * Random tweets a few seconds apart, occasionally late, using skewed hashtags:
+     * tag0 most often, then tag1, and so on.
+     */
+    private static List<Tweet> randomTweets(Random random, int count, int hashtags) {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        Instant time = d1;
+        for (int i = 0; i < count; i++) {
+            time = time.plusSeconds(random.nextInt(10));
+            Instant timestamp = random.nextInt(20) == 0 ? time.minusSeconds(random.nextInt(1200)) : time;
+            StringBuilder text = new StringBuilder("hello");
+            for (int j = random.nextInt(4); j > 0; j--) {
+                double skew = random.nextDouble();
+                text.append(random.nextBoolean() ? " #Tag" : " #tag").append((int) (hashtags * skew * skew * skew));
+            }
+            tweets.add(new Tweet(i, "user" + random.nextInt(10), text.toString(), timestamp));
+        }
+        return tweets;
+    }
+
+    // number of tweets in timespan that use each hashtag
+    private static Map<String, Long> windowCounts(List<Tweet> tweets, Timespan timespan) {
+        Map<String, Long> counts = new HashMap<String, Long>();
+        for (Tweet tweet : tweets) {
+            if (tweet.getTimestamp().isBefore(timespan.getStart()) || tweet.getTimestamp().isAfter(timespan.getEnd())) {
+                continue;
+            }
+            Set<String> hashtags = new HashSet<String>();
+            for (String hashtag : Extract.getHashtagUsers(Arrays.asList(tweet)).keySet()) {
+                hashtags.add(hashtag);
+            }
+            for (String hashtag : hashtags) {
+                counts.put(hashtag, counts.getOrDefault(hashtag, 0L) + 1);
+            }
+        }
+        return counts;
+    }
+
+    private static List<String> top(Map<String, Long> counts, int n) {
+        List<String> hashtags = new ArrayList<String>(counts.keySet());
+        Collections.sort(hashtags, (a, b) -> !counts.get(a).equals(counts.get(b))
+                ? Long.compare(counts.get(b), counts.get(a)) : a.compareTo(b));
+        return hashtags.subList(0, Math.min(n, hashtags.size()));
+    }
+
+    private static Tweet tweet(long id, Instant timestamp, String text) {
+        return new Tweet(id, "bbitdiddle", text, timestamp);
+    }
+}
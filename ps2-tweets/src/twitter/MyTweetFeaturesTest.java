@@ -0,0 +1,121 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MyTweetFeaturesTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * text: empty, only spaces, one word, many words, ending in a line terminator
+     * mention: at start, after a username character (not a mention), after other punctuation,
+     *          uppercase, odd username characters from the A-z range
+     * hashtag: alone, adjacent to another hashtag, "#" with no username characters
+     * words: ASCII, non-ASCII, repeated in different cases
+     *
+     * Cover each part, then compare against the regular expressions Extract used
+     * to use on random texts over an alphabet of the interesting characters.
+     */
+
+    // the patterns Extract.getMentionedUsers and Extract.getHashtagUsers were written with
+    private static final Pattern MENTION = Pattern.compile("(?<![a-zA-z0-9-_])@([a-zA-z0-9-_]+)");
+    private static final Pattern HASHTAG = Pattern.compile("#([a-zA-z0-9-_]+)[\\.\\,\\!\\)$ ]?");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyText() {
+        TweetFeatures features = TweetFeatures.of("");
+
+        assertTrue(features.mentions().isEmpty());
+        assertTrue(features.hashtags().isEmpty());
+        assertTrue(features.words().isEmpty());
+        assertTrue(TweetFeatures.of("   ").words().isEmpty());
+    }
+
+    @Test
+    public void testMentions() {
+        TweetFeatures features = TweetFeatures.of("@Alyssa hi, bitdiddle@mit.edu (@ben_B) @ @x[y]`z");
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("alyssa", "ben_b", "x[y]`z")), features.mentions());
+    }
+
+    @Test
+    public void testHashtags() {
+        TweetFeatures features = TweetFeatures.of("#Hype! a#b#C ### #6005");
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("hype", "b", "c", "6005")), features.hashtags());
+    }
+
+    @Test
+    public void testWords() {
+        TweetFeatures features = TweetFeatures.of("Talk  about RIVEST talk \u00c9T\u00c9\n");
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("talk", "about", "rivest", "\u00e9t\u00e9")), features.words());
+    }
+
+    @Test
+    public void testFeaturesUnmodifiable() {
+        TweetFeatures features = TweetFeatures.of("@a #b c");
+
+        try {
+            features.words().add("d");
+            fail("expected words to be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMatchesRegexExtraction() {
+        // covers all parts, randomly
+        String alphabet = "aZz09-_[`^@@##  .,!)$\n\r\u00e9\u00c9\u03a3";
+        Random random = new Random(6005);
+        for (int trial = 0; trial < 20000; trial++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            TweetFeatures features = TweetFeatures.of(text.toString());
+
+            assertEquals(text.toString(), regexMatches(MENTION, text.toString()), features.mentions());
+            assertEquals(text.toString(), regexMatches(HASHTAG, text.toString()), features.hashtags());
+            assertEquals(text.toString(), splitWords(text.toString()), features.words());
+        }
+    }
+
+    private static Set<String> regexMatches(Pattern pattern, String text) {
+        Set<String> matches = new LinkedHashSet<String>();
+        Matcher m = pattern.matcher(text);
+        while (m.find()) {
+            matches.add(m.group(1).toLowerCase());
+        }
+        return matches;
+    }
+
+    // words of the text as Filter.containing sees them: split at spaces, ignoring a final line terminator
+    private static Set<String> splitWords(String text) {
+        String lower = text.toLowerCase().replaceFirst("(?:\r\n|[\n\r\u0085\u2028\u2029])\\z", "");
+        Set<String> words = new LinkedHashSet<String>();
+        for (String word : lower.split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
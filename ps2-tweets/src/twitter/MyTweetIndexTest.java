@@ -0,0 +1,105 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyTweetIndexTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * number of tweets: 0, 1, >1
+     * number of words: 0, 1, >1
+     * matches: none, some, all; a tweet matching several words
+     * case: query and text in different cases
+     * word position in text: start, middle, end, repeated
+     *
+     * Cover each part, then compare against Filter.containing on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "Rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "ben", "talk talk TALK", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        TweetIndex index = new TweetIndex(Collections.<Tweet>emptyList());
+
+        assertEquals(0, index.wordCount());
+        assertTrue(index.containing(Arrays.asList("talk")).isEmpty());
+    }
+
+    @Test
+    public void testContainingNoWords() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2));
+
+        assertTrue(index.containing(Collections.<String>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testContainingOneWordCaseInsensitive() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals(Arrays.asList(tweet1, tweet2), index.containing(Arrays.asList("RIVEST")));
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3), index.containing(Arrays.asList("TALK", "nosuchword")));
+        assertTrue(index.containing(Arrays.asList("nosuchword")).isEmpty());
+    }
+
+    @Test
+    public void testContainingManyWordsInInputOrder() {
+        TweetIndex index = new TweetIndex(Arrays.asList(tweet3, tweet2, tweet1));
+
+        List<Tweet> containing = Filter.containing(index, Arrays.asList("much?", "talk", "minutes"));
+
+        assertEquals(Arrays.asList(tweet3, tweet2, tweet1), containing);
+        assertArrayEquals(new int[] {0, 1, 2}, index.ordinalsContaining(Arrays.asList("talk", "much?")));
+    }
+
+    @Test
+    public void testMatchesFilterContaining() {
+        // covers all parts, randomly
+        String[] vocabulary = { "a", "B", "talk", "Talk", "rivest", "#hype", "@alyssa", "\u00e9t\u00e9", "30" };
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 300; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(6); j > 0; j--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(random.nextBoolean() ? " " : "  ");
+            }
+            tweets.add(new Tweet(i, "user" + i, text.toString().trim(), d1));
+        }
+        TweetIndex index = new TweetIndex(tweets);
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<String> words = new ArrayList<String>();
+            for (int j = random.nextInt(4); j > 0; j--) {
+                words.add(vocabulary[random.nextInt(vocabulary.length)].toUpperCase());
+            }
+            List<Tweet> expected = Filter.containing(tweets, words);
+            List<Tweet> actual = index.containing(words);
+
+            assertEquals(words.toString(), new HashSet<Tweet>(expected), new HashSet<Tweet>(actual));
+            assertEquals(expected.size(), actual.size());
+            for (int j = 1; j < actual.size(); j++) {
+                assertTrue("expected input order", actual.get(j - 1).getId() < actual.get(j).getId());
+            }
+        }
+    }
+}
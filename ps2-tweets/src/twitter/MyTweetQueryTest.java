@@ -0,0 +1,157 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class MyTweetQueryTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * conditions: none, author, timespan, words, several of each, all three kinds
+     * matches: none, some, all
+     * indexes: none, one, all three; the most selective is the author, time, or word index,
+     *   or none narrows the query down; indexes of different sizes
+     * stream: consumed whole, consumed in part
+     *
+     * Cover each part, then compare against chained Filter calls on random tweets,
+     * with every combination of indexes.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "talk talk TALK", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testAll() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+        assertEquals(tweets, TweetQuery.all().stream(tweets).collect(Collectors.toList()));
+        assertEquals(0, TweetQuery.all().stream(Collections.<Tweet>emptyList()).count());
+    }
+
+    @Test
+    public void testFluentConditions() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+        TweetQuery query = TweetQuery.by("ALYSSA").in(new Timespan(d2, d2)).containing(Arrays.asList("Talk"));
+
+        assertEquals(Arrays.asList(tweet3), query.stream(tweets).collect(Collectors.toList()));
+        assertTrue(query.test(tweet3));
+        assertFalse(query.test(tweet1));
+        assertEquals(Arrays.asList(tweet1, tweet3),
+                TweetQuery.by("alyssa").stream(tweets).collect(Collectors.toList()));
+        assertEquals(0, TweetQuery.by("alyssa").writtenBy("bbitdiddle").stream(tweets).count());
+        assertEquals(Arrays.asList(tweet1, tweet2), TweetQuery.all().containing(Arrays.asList("talk"))
+                .containing(Arrays.asList("#hype", "much?")).in(new Timespan(d1, d2))
+                .stream(tweets).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testReusable() {
+        TweetQuery query = TweetQuery.all().containing(Arrays.asList("rivest"));
+
+        assertEquals(Arrays.asList(tweet1, tweet2),
+                query.stream(Arrays.asList(tweet1, tweet2, tweet3)).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(tweet2),
+                query.stream(Arrays.asList(tweet3, tweet2)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testLazy() {
+        final int[] tested = {0};
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 1000; i++) {
+            tweets.add(new Tweet(i, "alyssa", "talk", d1));
+        }
+
+        Iterator<Tweet> matching = TweetQuery.by("alyssa").stream(tweets).peek(tweet -> tested[0]++).iterator();
+
+        assertEquals(0, tested[0]);
+        assertEquals(0, matching.next().getId());
+        assertEquals(1, tested[0]);
+    }
+
+    @Test
+    public void testIndexedPicksAnyIndex() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        AuthorIndex byAuthor = new AuthorIndex(tweets);
+        TweetTimeIndex byTime = new TweetTimeIndex(tweets);
+        TweetIndex byWord = new TweetIndex(tweets);
+
+        TweetQuery query = TweetQuery.by("alyssa").in(new Timespan(d2, d2)).containing(Arrays.asList("talk"));
+
+        assertEquals(Arrays.asList(tweet3), query.stream(byAuthor, byTime, byWord).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(tweet3), query.stream(byAuthor, null, null).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(tweet3), query.stream(null, byTime, null).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(tweet3), query.stream(null, null, byWord).collect(Collectors.toList()));
+        assertEquals(tweets, TweetQuery.all().stream(byAuthor, byTime, byWord).collect(Collectors.toList()));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoIndex() {
+        TweetQuery.all().stream(null, null, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMismatchedIndexes() {
+        TweetQuery.all().stream(new AuthorIndex(Arrays.asList(tweet1)), null, new TweetIndex(Arrays.asList(tweet1, tweet2)));
+    }
+
+    @Test
+    public void testMatchesChainedFilters() {
+        Random random = new Random(22);
+        for (int trial = 0; trial < 20; trial++) {
+            List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 500, 1 + random.nextInt(20));
+            AuthorIndex byAuthor = new AuthorIndex(tweets);
+            TweetTimeIndex byTime = new TweetTimeIndex(tweets);
+            TweetIndex byWord = new TweetIndex(tweets);
+
+            String author = tweets.get(random.nextInt(tweets.size())).getAuthor();
+            Instant start = d1.plusSeconds(random.nextInt(500));
+            Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(500)));
+            List<String> words = Arrays.asList("#tag" + random.nextInt(20), "@USER" + random.nextInt(20), "nosuchword");
+
+            List<Tweet> authored = random.nextBoolean() ? Filter.writtenBy(tweets, author) : tweets;
+            List<Tweet> inSpan = random.nextBoolean() ? Filter.inTimespan(authored, timespan) : authored;
+            List<Tweet> expected = random.nextBoolean() ? Filter.containing(inSpan, words) : inSpan;
+            TweetQuery query = TweetQuery.all();
+            if (authored != tweets) {
+                query = query.writtenBy(author);
+            }
+            if (inSpan != authored) {
+                query = query.in(timespan);
+            }
+            if (expected != inSpan) {
+                query = query.containing(words);
+            }
+
+            assertEquals(expected, query.stream(tweets).collect(Collectors.toList()));
+            for (int indexes = 1; indexes < 8; indexes++) {
+                assertEquals(query + " with indexes " + indexes, expected, query.stream(
+                        (indexes & 1) != 0 ? byAuthor : null,
+                        (indexes & 2) != 0 ? byTime : null,
+                        (indexes & 4) != 0 ? byWord : null).collect(Collectors.toList()));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class MyTweetReaderTest {
+
+    /*
+     * Testing strategy:
+     * 
+     * Partition on:
+     * feed layout: JSON array, one object per line
+     * number of tweets: 0, 1, >1
+     * source: file, InputStream
+     * tweet objects: only the required fields, extra fields (including nested ones), escapes in strings
+     * feed: valid, malformed
+     * consumption: whole feed, only a prefix of the feed
+     * 
+     * Cover each part. The file fixtures are in test/twitter, relative to the project directory.
+     */
+    
+    private static final Path ARRAY_FEED = Paths.get("test", "twitter", "sample-tweets.json");
+    private static final Path LINES_FEED = Paths.get("test", "twitter", "sample-tweets.jsonl");
+    
+    private static final List<Tweet> SAMPLE = Arrays.asList(
+            new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", Instant.parse("2016-02-17T10:00:00Z")),
+            new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", Instant.parse("2016-02-17T11:00:00Z")),
+            new Tweet(3, "ben_bit-diddle", "quote \"@alyssa\" \u00e9 \u00e9\n", Instant.parse("2016-02-17T12:30:00Z")));
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    @Test
+    public void testStreamArrayFile() throws IOException {
+        // covers JSON array, file, >1 tweet, extra and nested fields, escapes
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(ARRAY_FEED)) {
+            assertSameTweets(SAMPLE, tweets.collect(Collectors.toList()));
+        }
+    }
+    
+    @Test
+    public void testStreamLinesFile() throws IOException {
+        // covers one object per line, file, >1 tweet
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(LINES_FEED)) {
+            assertSameTweets(SAMPLE, tweets.collect(Collectors.toList()));
+        }
+    }
+    
+    @Test
+    public void testStreamPrefix() throws IOException {
+        // covers consuming only part of a feed
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(LINES_FEED)) {
+            assertSameTweets(SAMPLE.subList(0, 1), tweets.limit(1).collect(Collectors.toList()));
+        }
+    }
+    
+    @Test
+    public void testReadTweetsInputStream() throws IOException {
+        // covers InputStream, 0 and 1 tweets in either layout
+        assertTrue(TweetReader.readTweets(stream("")).isEmpty());
+        assertTrue(TweetReader.readTweets(stream(" [ ] \n")).isEmpty());
+        String tweet = "{\"id\":7,\"username\":\"x\",\"text\":\"\",\"timestamp\":\"2016-02-17T10:00:00Z\"}";
+        Tweet expected = new Tweet(7, "x", "", Instant.parse("2016-02-17T10:00:00Z"));
+        assertSameTweets(Arrays.asList(expected), TweetReader.readTweets(stream(tweet)));
+        assertSameTweets(Arrays.asList(expected), TweetReader.readTweets(stream("[" + tweet + "]")));
+    }
+    
+    @Test
+    public void testIterateMatchesRead() throws IOException {
+        // covers iterator and list reading the same file
+        List<Tweet> read;
+        try (InputStream in = Files.newInputStream(ARRAY_FEED)) {
+            read = TweetReader.readTweets(in);
+        }
+        try (InputStream in = Files.newInputStream(ARRAY_FEED)) {
+            Iterator<Tweet> it = TweetReader.iterateTweets(in);
+            for (Tweet tweet : read) {
+                assertTrue("expected more tweets", it.hasNext());
+                assertSameTweet(tweet, it.next());
+            }
+            assertFalse("expected end of feed", it.hasNext());
+        }
+    }
+    
+    @Test(expected=IOException.class)
+    public void testReadMalformed() throws IOException {
+        // covers malformed feed: missing required field
+        TweetReader.readTweets(stream("[{\"id\":1,\"username\":\"x\",\"text\":\"t\"}]"));
+    }
+    
+    @Test(expected=UncheckedIOException.class)
+    public void testStreamMalformed() {
+        // covers malformed feed: unterminated array, seen only once the stream is consumed
+        String feed = "[{\"id\":1,\"username\":\"x\",\"text\":\"t\",\"timestamp\":\"2016-02-17T10:00:00Z\"}";
+        TweetReader.streamTweets(stream(feed)).count();
+    }
+    
+    private static InputStream stream(String feed) {
+        return new ByteArrayInputStream(feed.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Tweet.equals compares only ids, so compare every field
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals("expected same number of tweets", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTweet(expected.get(i), actual.get(i));
+        }
+    }
+    
+    private static void assertSameTweet(Tweet expected, Tweet actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+}
@@ -0,0 +1,128 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyTweetStoreTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * number of tweets: 0, 1, >1
+     * authors: one spelling, same author in different cases
+     * text: empty, ASCII, non-ASCII
+     * writtenBy: no match, some match, case-insensitive match
+     * inTimespan: no match, some match, bounds at tweet times, bounds between milliseconds
+     * Filter overloads: agree with the list versions of Filter
+     *
+     * Cover each part.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "caf\u00e9 \ud83d\ude00 @bbitdiddle", d3);
+    private static final Tweet tweet4 = new Tweet(4, "ben", "", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyStore() throws IOException {
+        TweetStore store = roundTrip(Collections.<Tweet>emptyList());
+
+        assertEquals(0, store.size());
+        assertArrayEquals(new int[0], store.writtenBy("alyssa"));
+        assertArrayEquals(new int[0], store.inTimespan(new Timespan(d1, d3)));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3, tweet4);
+        TweetStore store = roundTrip(tweets);
+
+        assertEquals(4, store.size());
+        for (int i = 0; i < tweets.size(); i++) {
+            assertSameTweet(tweets.get(i), store.tweet(i));
+        }
+        assertEquals(d2.toEpochMilli(), store.timestampMillis(1));
+        assertEquals(3, store.id(2));
+    }
+
+    @Test
+    public void testWrittenByCaseInsensitive() throws IOException {
+        TweetStore store = roundTrip(Arrays.asList(tweet1, tweet2, tweet3, tweet4));
+
+        assertArrayEquals(new int[] {0, 2}, store.writtenBy("ALYSSA"));
+        assertArrayEquals(new int[] {1}, store.writtenBy("bbitdiddle"));
+        assertArrayEquals(new int[0], store.writtenBy("nobody"));
+    }
+
+    @Test
+    public void testInTimespanBounds() throws IOException {
+        TweetStore store = roundTrip(Arrays.asList(tweet1, tweet2, tweet3, tweet4));
+
+        assertArrayEquals(new int[] {1, 2, 3}, store.inTimespan(new Timespan(d2, d3)));
+        assertArrayEquals(new int[] {1}, store.inTimespan(new Timespan(d2, d2)));
+        // a start just after a tweet's millisecond excludes it
+        assertArrayEquals(new int[] {2, 3}, store.inTimespan(new Timespan(d2.plusNanos(1), d3)));
+        assertArrayEquals(new int[0], store.inTimespan(new Timespan(d1.plusNanos(1), d2.minusNanos(1))));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, store.inTimespan(new Timespan(Instant.MIN, Instant.MAX)));
+    }
+
+    @Test
+    public void testFilterOverloadsMatchListFilters() throws IOException {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 500; i++) {
+            String author = (random.nextBoolean() ? "User" : "user") + random.nextInt(10);
+            Instant time = d1.plusMillis(random.nextInt(1_000_000));
+            tweets.add(new Tweet(i, author, "tweet number " + i, time));
+        }
+        TweetStore store = roundTrip(tweets);
+
+        for (int i = 0; i < 10; i++) {
+            assertSameTweets(Filter.writtenBy(tweets, "user" + i), Filter.writtenBy(store, "user" + i));
+        }
+        Timespan timespan = new Timespan(d1.plusMillis(250_000), d1.plusMillis(750_000));
+        assertSameTweets(Filter.inTimespan(tweets, timespan), Filter.inTimespan(store, timespan));
+    }
+
+    private static TweetStore roundTrip(List<Tweet> tweets) throws IOException {
+        Path file = Files.createTempFile("tweets", ".store");
+        file.toFile().deleteOnExit();
+        assertEquals(tweets.size(), TweetStore.write(file, tweets.iterator()));
+        return TweetStore.open(file);
+    }
+
+    private static void assertSameTweets(List<Tweet> expected, List<Tweet> actual) {
+        assertEquals("expected same number of tweets", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTweet(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static void assertSameTweet(Tweet expected, Tweet actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+}
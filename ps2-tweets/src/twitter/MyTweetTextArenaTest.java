@@ -0,0 +1,179 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MyTweetTextArenaTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * arena: empty, one text, texts across several chunks
+     * text: empty, ASCII, 2-, 3-, and 4-byte UTF-8 characters, at the 64KB limit and over it
+     * mentions and hashtags: none, at start, after a username character, after a
+     *   non-ASCII character, uppercase, ended by a non-ASCII character
+     * words: ASCII, non-ASCII, before a final line terminator (LF, CRLF, U+0085, U+2028)
+     * handle: valid, negative, too large
+     *
+     * Cover each part, then compare against TweetFeatures and WordMatcher on random texts.
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        TweetTextArena arena = new TweetTextArena();
+
+        assertEquals(0, arena.size());
+        assertEquals(0, arena.textBytes());
+        assertTrue(arena.mentionedUsers().isEmpty());
+        assertEquals(0, arena.containing(Arrays.asList("talk")).length);
+    }
+
+    @Test
+    public void testTextsRoundTrip() {
+        TweetTextArena arena = new TweetTextArena();
+        String[] texts = {"", "rivest talk", "caf\u00e9 \u2028", "\ud83d\ude00 smile"};
+
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(i, arena.add(texts[i]));
+        }
+        assertEquals(texts.length, arena.size());
+        for (int i = 0; i < texts.length; i++) {
+            assertEquals(texts[i], arena.text(i));
+        }
+        assertEquals(0, arena.byteLength(0));
+        assertEquals(4 + 1 + 5, arena.byteLength(3));
+        assertEquals(0 + 11 + 9 + 10, arena.textBytes());
+    }
+
+    @Test
+    public void testManyChunks() {
+        TweetTextArena arena = new TweetTextArena(1 << 16);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("word").append(i).append(' ');
+        }
+        for (int i = 0; i < 50; i++) {
+            arena.add(text + "@user" + i);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(text + "@user" + i, arena.text(i));
+        }
+        assertEquals(50, arena.mentionedUsers().size());
+        assertArrayEquals(new int[] {7}, arena.containing(Arrays.asList("@USER7")));
+    }
+
+    @Test
+    public void testTextAtLimit() {
+        TweetTextArena arena = new TweetTextArena(1 << 16);
+        char[] text = new char[1 << 15];
+        Arrays.fill(text, '\u00e9');
+
+        arena.add(new String(text));
+        arena.add(new String(text));
+
+        assertEquals(new String(text), arena.text(1));
+        assertEquals(1 << 16, arena.byteLength(1));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTextTooLong() {
+        char[] text = new char[(1 << 16) + 1];
+        Arrays.fill(text, 'a');
+        new TweetTextArena().add(new String(text));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testChunkTooSmall() {
+        new TweetTextArena(1 << 10);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNoSuchHandle() {
+        TweetTextArena arena = new TweetTextArena();
+        arena.add("talk");
+        arena.text(1);
+    }
+
+    @Test
+    public void testScan() {
+        TweetTextArena arena = new TweetTextArena();
+        arena.add("@Alyssa x@ben \u00e9@Cy #Hype#6005 @\u00e9 ##x");
+        Set<String> mentions = new LinkedHashSet<String>();
+        Set<String> hashtags = new LinkedHashSet<String>();
+
+        arena.scan(0, mentions, hashtags);
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("alyssa", "cy")), mentions);
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("hype", "6005", "x")), hashtags);
+    }
+
+    @Test
+    public void testContainsWords() {
+        TweetTextArena arena = new TweetTextArena();
+        arena.add("the end\n");
+        arena.add("LE CAF\u00c9\r\n");
+        arena.add("talks only\u2028");
+        WordMatcher words = new WordMatcher(Arrays.asList("end", "caf\u00e9", "only"));
+
+        assertTrue(arena.contains(0, words));
+        assertTrue(arena.contains(1, words));
+        assertTrue(arena.contains(2, words));
+        assertArrayEquals(new int[] {0, 2}, arena.containing(Arrays.asList("END", "only", "talk")));
+    }
+
+    @Test
+    public void testMatchesStringScanners() {
+        String[] pieces = {"a", "B", "@", "#", "-", "_", "\u00e9", "\u00c9", "\u0130", "\ud83d\ude00",
+            "\n", "\r\n", "\u0085", "\u2028", "\u0145", " ", " ", "6005"};
+        Random random = new Random(25);
+        TweetTextArena arena = new TweetTextArena(1 << 16);
+        List<String> texts = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                text.append(pieces[random.nextInt(pieces.length)]);
+            }
+            texts.add(text.toString());
+            arena.add(text.toString());
+        }
+
+        for (int trial = 0; trial < 50; trial++) {
+            List<String> words = new ArrayList<String>();
+            for (int i = random.nextInt(4); i >= 0; i--) {
+                String[] textWords = (texts.get(random.nextInt(texts.size())) + " x").split(" ");
+                words.add(textWords[random.nextInt(textWords.length)]);
+            }
+            WordMatcher matcher = new WordMatcher(words);
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(words + " in \"" + texts.get(i) + "\"", matcher.matches(texts.get(i)), arena.contains(i, matcher));
+            }
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            Set<String> mentions = new LinkedHashSet<String>();
+            Set<String> hashtags = new LinkedHashSet<String>();
+            TweetFeatures.scan(texts.get(i), mentions, hashtags, null);
+            Set<String> arenaMentions = new LinkedHashSet<String>();
+            Set<String> arenaHashtags = new LinkedHashSet<String>();
+            arena.scan(i, arenaMentions, arenaHashtags);
+
+            assertEquals(texts.get(i), arena.text(i));
+            assertEquals(mentions, arenaMentions);
+            assertEquals(hashtags, arenaHashtags);
+        }
+    }
+}
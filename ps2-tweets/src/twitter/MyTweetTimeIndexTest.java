@@ -0,0 +1,137 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MyTweetTimeIndexTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * number of tweets: 0, 1, >1
+     * input order: already sorted, unsorted, equal timestamps
+     * add: newest tweet, older tweet (inserted in place), tweet equal to an indexed time
+     * timespan: before, after, covering, matching exactly, endpoints beyond the nanosecond range
+     * timestamp: inside, outside the nanosecond range
+     * views: read before, after a later add
+     *
+     * Cover each part, then compare against Filter.inTimespan and Extract.getTimespan at random.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "ben", "talk", d3);
+    private static final Tweet tweet4 = new Tweet(4, "ben", "again", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        TweetTimeIndex index = new TweetTimeIndex();
+
+        assertEquals(0, index.size());
+        assertEquals(Instant.EPOCH, index.getTimespan().getStart());
+        assertEquals(Instant.EPOCH, index.getTimespan().getEnd());
+        assertTrue(index.inTimespan(new Timespan(d1, d3)).isEmpty());
+    }
+
+    @Test
+    public void testUnsortedInputWithEqualTimes() {
+        TweetTimeIndex index = new TweetTimeIndex(Arrays.asList(tweet3, tweet2, tweet1, tweet4));
+
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet4, tweet3), index.inTimespan(new Timespan(d1, d3)));
+        assertEquals(Arrays.asList(tweet2, tweet4), index.inTimespan(new Timespan(d2, d2)));
+        assertEquals(Arrays.asList(tweet3, tweet2, tweet4), index.inTimespanInAddedOrder(new Timespan(d2, d3)));
+        assertArrayEquals(new int[] {1, 3}, index.ordinalsInTimespan(new Timespan(d2, d2)));
+        assertEquals(d1, Extract.getTimespan(index).getStart());
+        assertEquals(d3, Extract.getTimespan(index).getEnd());
+    }
+
+    @Test
+    public void testTimespanOutsideTweets() {
+        TweetTimeIndex index = new TweetTimeIndex(Arrays.asList(tweet1, tweet2));
+
+        assertTrue(index.inTimespan(new Timespan(d1.minusSeconds(10), d1.minusNanos(1))).isEmpty());
+        assertTrue(index.inTimespan(new Timespan(d3, d3)).isEmpty());
+        assertTrue(index.inTimespan(new Timespan(Instant.MAX, Instant.MAX)).isEmpty());
+        assertTrue(index.inTimespan(new Timespan(Instant.MIN, Instant.MIN)).isEmpty());
+        assertEquals(Arrays.asList(tweet1, tweet2), index.inTimespan(new Timespan(Instant.MIN, Instant.MAX)));
+    }
+
+    @Test
+    public void testAddNewerAndOlder() {
+        TweetTimeIndex index = new TweetTimeIndex(Collections.singletonList(tweet2));
+
+        assertEquals(1, index.add(tweet3));
+        assertEquals(2, index.add(tweet1));
+        assertEquals(3, index.add(tweet4));
+
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet4, tweet3), index.inTimespan(new Timespan(d1, d3)));
+        assertEquals(Arrays.asList(tweet2, tweet3, tweet1, tweet4), index.tweets());
+        assertEquals(d1, index.getTimespan().getStart());
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void testViewInvalidatedByAdd() {
+        TweetTimeIndex index = new TweetTimeIndex(Arrays.asList(tweet1, tweet2));
+        List<Tweet> view = index.inTimespan(new Timespan(d1, d3));
+
+        index.add(tweet3);
+        view.get(0);
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void testTweetsViewInvalidatedByAdd() {
+        TweetTimeIndex index = new TweetTimeIndex(Arrays.asList(tweet1, tweet2));
+        List<Tweet> tweets = index.tweets();
+
+        index.add(tweet3);
+        tweets.size();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTimestampOutsideNanosecondRange() {
+        new TweetTimeIndex().add(new Tweet(5, "alyssa", "far future", Instant.parse("3000-01-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testMatchesFilterAndExtract() {
+        // covers unsorted input, older and newer adds, and many timespans, randomly
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 200; i++) {
+            tweets.add(new Tweet(i, "user" + i, "tweet", d1.plusNanos(random.nextInt(1000) * 1_000_000_007L)));
+        }
+        TweetTimeIndex index = new TweetTimeIndex(tweets.subList(0, 100));
+        for (Tweet tweet : tweets.subList(100, 200)) {
+            index.add(tweet);
+        }
+
+        assertEquals(Extract.getTimespan(tweets).getStart(), index.getTimespan().getStart());
+        assertEquals(Extract.getTimespan(tweets).getEnd(), index.getTimespan().getEnd());
+        for (int trial = 0; trial < 200; trial++) {
+            Instant a = tweets.get(random.nextInt(tweets.size())).getTimestamp().plusNanos(random.nextInt(3) - 1);
+            Instant b = tweets.get(random.nextInt(tweets.size())).getTimestamp();
+            Timespan timespan = a.isAfter(b) ? new Timespan(b, a) : new Timespan(a, b);
+
+            assertEquals(Filter.inTimespan(tweets, timespan), Filter.inTimespan(index, timespan));
+        }
+    }
+}
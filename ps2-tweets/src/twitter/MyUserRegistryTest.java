@@ -0,0 +1,176 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class MyUserRegistryTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * username: new, seen in the same case, seen in another case
+     * registry: empty, past its initial capacity; shared
+     * lookup: id, idIfPresent of registered and unregistered, canonical, username of
+     *   valid and invalid ids
+     * threads: 1, several registering overlapping usernames at once
+     *
+     * Cover each part, then compare the id-based Extract, Filter, and SocialNetwork
+     * methods against the string-based ones on random tweets.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testInternsCaseInsensitively() {
+        UserRegistry users = new UserRegistry();
+
+        assertEquals(0, users.id("Alyssa"));
+        assertEquals(1, users.id("bbitdiddle"));
+        assertEquals(0, users.id("ALYSSA"));
+        assertEquals(0, users.id("alyssa"));
+        assertEquals(2, users.size());
+        assertEquals("alyssa", users.username(0));
+        assertSame(users.canonical("AlYsSa"), users.canonical("aLySsA"));
+        assertEquals(1, users.idIfPresent("BBITDIDDLE"));
+        assertEquals(-1, users.idIfPresent("ben"));
+        assertEquals(2, users.size());
+    }
+
+    @Test
+    public void testDenseIdsPastCapacity() {
+        UserRegistry users = new UserRegistry();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, users.id("User" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("user" + i, users.username(i));
+        }
+        assertEquals(1000, users.size());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testUnknownId() {
+        new UserRegistry().username(0);
+    }
+
+    @Test
+    public void testShared() {
+        assertSame(UserRegistry.shared(), UserRegistry.shared());
+        int id = UserRegistry.shared().id("MyUserRegistryTest");
+        assertEquals(id, UserRegistry.shared().idIfPresent("myuserregistrytest"));
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception {
+        final UserRegistry users = new UserRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+            for (int thread = 0; thread < 4; thread++) {
+                final boolean upper = thread % 2 == 0;
+                results.add(executor.submit(new Callable<int[]>() {
+                    @Override public int[] call() {
+                        int[] ids = new int[5000];
+                        for (int i = 0; i < ids.length; i++) {
+                            String username = "user" + i;
+                            ids[i] = users.id(upper ? username.toUpperCase() : username);
+                        }
+                        return ids;
+                    }
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(first, result.get());
+            }
+            assertEquals(5000, users.size());
+            Set<Integer> distinct = new HashSet<Integer>();
+            for (int i = 0; i < first.length; i++) {
+                assertEquals("user" + i, users.username(first[i]));
+                distinct.add(first[i]);
+            }
+            assertEquals(5000, distinct.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testIdMethodsMatchStringMethods() {
+        Random random = new Random(20);
+        for (int trial = 0; trial < 5; trial++) {
+            List<Tweet> tweets = MySocialNetworkTest.randomTweets(random, 2000, 1 + random.nextInt(100));
+            UserRegistry users = new UserRegistry();
+
+            assertEquals(Extract.getMentionedUsers(tweets), usernames(Extract.getMentionedUserIds(tweets, users), users));
+
+            Map<String, Set<String>> hashtagUsers = new HashMap<String, Set<String>>();
+            for (Map.Entry<String, BitSet> entry : Extract.getHashtagUserIds(tweets, users).entrySet()) {
+                hashtagUsers.put(entry.getKey(), usernames(entry.getValue(), users));
+            }
+            assertEquals(Extract.getHashtagUsers(tweets), hashtagUsers);
+
+            String author = tweets.get(random.nextInt(tweets.size())).getAuthor();
+            assertEquals(Filter.writtenBy(tweets, author), Filter.writtenBy(tweets, users.id(author), users));
+
+            Map<Integer, BitSet> ids = SocialNetwork.guessFollowsGraph(tweets, users);
+            Map<String, Set<String>> network = new HashMap<String, Set<String>>();
+            for (Map.Entry<Integer, BitSet> entry : ids.entrySet()) {
+                network.put(users.username(entry.getKey()), usernames(entry.getValue(), users));
+            }
+            assertEquals(SocialNetwork.guessFollowsGraph(tweets), network);
+
+            List<String> influencers = new ArrayList<String>();
+            for (int id : SocialNetwork.influencers(ids, users)) {
+                influencers.add(users.username(id));
+            }
+            assertEquals(SocialNetwork.influencers(network), influencers);
+        }
+    }
+
+    @Test
+    public void testWrittenByCaseInsensitive() {
+        UserRegistry users = new UserRegistry();
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        tweets.add(new Tweet(1, "Alyssa", "hi", d1));
+        tweets.add(new Tweet(2, "bbitdiddle", "hi", d1));
+        tweets.add(new Tweet(3, "ALYSSA", "hi", d1));
+
+        List<Tweet> authored = Filter.writtenBy(tweets, users.id("alyssa"), users);
+
+        assertEquals(2, authored.size());
+        assertEquals(1, authored.get(0).getId());
+        assertEquals(3, authored.get(1).getId());
+        assertEquals(1, users.size());
+        assertEquals(-1, users.idIfPresent("bbitdiddle"));
+    }
+
+    private static Set<String> usernames(BitSet ids, UserRegistry users) {
+        Set<String> usernames = new HashSet<String>();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            usernames.add(users.username(id));
+        }
+        return usernames;
+    }
+}
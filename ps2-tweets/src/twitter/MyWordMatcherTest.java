@@ -0,0 +1,172 @@
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class MyWordMatcherTest {
+
+    /*
+     * Testing strategy:
+     *
+     * Partition on:
+     * words: none, one, many; one a prefix or suffix of another; duplicates and
+     *   case variants; regex metacharacters; empty or containing a space
+     * text: empty, one word, many; word at start, middle, end; repeated spaces;
+     *   final line terminator (LF, CRLF, U+2028), terminator mid-text; non-ASCII
+     * match: whole word, substring of a word only, different case
+     *
+     * Cover each part, then compare against the original regex search, with the words
+     * quoted, on random texts and word lists.
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testNoWords() {
+        WordMatcher matcher = new WordMatcher(Collections.<String>emptyList());
+
+        assertFalse(matcher.matches("anything at all"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    public void testWholeWordsOnly() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("talk", "rivest"));
+
+        assertTrue(matcher.matches("talk"));
+        assertTrue(matcher.matches("Rivest talk in 30 minutes"));
+        assertTrue(matcher.matches("is the RIVEST"));
+        assertFalse(matcher.matches("talks by rivestX"));
+        assertFalse(matcher.matches("talk, rivest."));
+        assertFalse(matcher.matches("walk"));
+    }
+
+    @Test
+    public void testPrefixAndSuffixWords() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("cat", "category", "at"));
+
+        assertEquals(new LinkedHashSet<String>(Arrays.asList("category", "at")),
+                matcher.matchedWords("category  at catego"));
+        assertEquals(Collections.singleton("cat"), matcher.matchedWords("bobcat cat cats"));
+    }
+
+    @Test
+    public void testDuplicateWords() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("Obama", "obama", "OBAMA"));
+
+        assertEquals(Arrays.asList("obama"), matcher.words());
+        assertTrue(matcher.matches("go oBaMa"));
+    }
+
+    @Test
+    public void testMetacharactersAreLiteral() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("6.005", "a+b"));
+
+        assertTrue(matcher.matches("in 6.005 today"));
+        assertFalse(matcher.matches("in 6x005 today"));
+        assertTrue(matcher.matches("a+b"));
+        assertFalse(matcher.matches("aab"));
+    }
+
+    @Test
+    public void testNotWords() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("", "two words"));
+
+        assertTrue(matcher.words().isEmpty());
+        assertFalse(matcher.matches("two words"));
+    }
+
+    @Test
+    public void testLineTerminators() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("end"));
+
+        assertTrue(matcher.matches("the end\n"));
+        assertTrue(matcher.matches("the end\r\n"));
+        assertTrue(matcher.matches("the end\u2028"));
+        assertFalse(matcher.matches("the end\n\n"));
+        assertFalse(matcher.matches("end\nmore"));
+    }
+
+    @Test
+    public void testNonAscii() {
+        WordMatcher matcher = new WordMatcher(Arrays.asList("CAF\u00c9", "na\u00efve"));
+
+        assertTrue(matcher.matches("le caf\u00e9"));
+        assertTrue(matcher.matches("NA\u00cfVE"));
+        assertFalse(matcher.matches("cafe naive"));
+    }
+
+    @Test
+    public void testMatchesRegexSearch() {
+        Random random = new Random(21);
+        String[] pieces = {"a", "B", "ab", "\u00e9", "\u00c9", "6.005", "-", "\n", "\r\n", "\u2028", "", " ", "  "};
+        for (int trial = 0; trial < 2000; trial++) {
+            List<String> words = new ArrayList<String>();
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                String word = randomText(random, pieces, 1 + random.nextInt(3)).replace(" ", "");
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+            String text = randomText(random, pieces, random.nextInt(8));
+            WordMatcher matcher = new WordMatcher(words);
+
+            Set<String> expected = new HashSet<String>();
+            for (String word : words) {
+                if (regexSearch(word, text)) {
+                    expected.add(word.toLowerCase());
+                }
+            }
+            assertEquals("words " + words + " in \"" + text + "\"", expected, new HashSet<String>(matcher.matchedWords(text)));
+            assertEquals(!expected.isEmpty(), matcher.matches(text));
+        }
+    }
+
+    @Test
+    public void testFilterContainingMatchesRegexSearch() {
+        Random random = new Random(22);
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        for (int i = 0; i < 500; i++) {
+            tweets.add(new Tweet(i, "alyssa", randomText(random, new String[] {"is", "IS", "talk", " ", "x"}, 6), d1));
+        }
+        List<String> words = Arrays.asList("is", "Talk");
+
+        Set<Tweet> expected = new HashSet<Tweet>();
+        for (Tweet tweet : tweets) {
+            if (regexSearch("is", tweet.getText()) || regexSearch("Talk", tweet.getText())) {
+                expected.add(tweet);
+            }
+        }
+        assertEquals(expected, new HashSet<Tweet>(Filter.containing(tweets, words)));
+    }
+
+    // the original Filter.containing search, with the word quoted
+    private static boolean regexSearch(String word, String text) {
+        return Pattern.compile("(?:^| )" + Pattern.quote(word.toLowerCase()) + "(?: |$)").matcher(text.toLowerCase()).find();
+    }
+
+    private static String randomText(Random random, String[] pieces, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package twitter;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * OrdinalList is an unmodifiable view of some elements of a list, picked out by
+ * their positions (ordinals), as the tweet indexes return query results without
+ * copying tweets.
+ */
+class OrdinalList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> elements;
+    private final int[] ordinals;
+
+    // rep invariant:
+    //    every ordinal is a valid index of elements
+    // abstraction function:
+    //    represents the list whose i-th element is elements.get(ordinals[i])
+    // safety from rep exposure argument:
+    //    the view has no mutators; callers hand over elements and ordinals and don't change them
+
+    /**
+     * Make a view.
+     * @param elements list to view, which must not be changed while the view is in use
+     * @param ordinals positions in elements, which must not be changed afterwards
+     */
+    OrdinalList(List<E> elements, int[] ordinals) {
+        this.elements = elements;
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    public E get(int i) {
+        return elements.get(ordinals[i]);
+    }
+
+    @Override
+    public int size() {
+        return ordinals.length;
+    }
+}
@@ -1,6 +1,8 @@
 package twitter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,35 +50,82 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        Map<String, Set<String>> network = new HashMap<String, Set<String>>();
-        Map<String, Set<String>> hashtags = Extract.getHashtagUsers(tweets);
-        
-        
+        // evidence: mentions, and co-membership of a hashtag, gathered in one pass
+        return new FollowsGraphBuilder().addAll(tweets).build();
+    }
+
+    /**
+     * Same as {@link #guessFollowsGraph(List)}, but gathers the evidence and builds
+     * the network across the threads of a fork/join pool. The result does not
+     * depend on the pool's parallelism.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param pool
+     *            pool to build in, e.g. new ForkJoinPool(threads)
+     * @return a social network equal to guessFollowsGraph(tweets)
+     */
+    public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets, ForkJoinPool pool) {
+        return FollowsGraphBuilder.of(tweets, pool).build(pool);
+    }
+
+    /**
+     * Same as {@link #guessFollowsGraph(List)}, but with users as ids. Only the
+     * result is compact: mentions and hashtags are still scanned into lowercased
+     * Strings, and mentions looked up in the registry.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @param users
+     *            registry to look up and register the authors and mentioned
+     *            users in
+     * @return a social network equal to guessFollowsGraph(tweets), with each
+     *         username replaced by its id in users: a map from the id of each
+     *         author to the ids of the users they follow.
+     */
+    public static Map<Integer, BitSet> guessFollowsGraph(List<Tweet> tweets, UserRegistry users) {
+        Map<Integer, BitSet> network = new HashMap<Integer, BitSet>();
+        Map<String, BitSet> hashtagUsers = new HashMap<String, BitSet>();
+        // author id -> users of each hashtag they use
+        Map<Integer, List<BitSet>> hashtagsUsed = new HashMap<Integer, List<BitSet>>();
+        List<String> mentions = new ArrayList<String>();
+        List<String> hashtags = new ArrayList<String>();
         for (Tweet tweet : tweets) {
-            String username = tweet.getAuthor().toLowerCase();
-            // store all predicted follows for this tweet's author
-            Set<String> follows = new HashSet<String>();     
-            
-            // mentions imply follows!
-            // convert all mentions to lowercase before putting to network
-            Set<String> uncleanMentions = Extract.getMentionedUsers(Filter.writtenBy(tweets, username));
-            for (String mention : uncleanMentions) {
-                follows.add(mention.toLowerCase());
+            int author = users.id(tweet.getAuthor());
+            BitSet follows = network.get(author);
+            if (follows == null) {
+                follows = new BitSet();
+                network.put(author, follows);
+                hashtagsUsed.put(author, new ArrayList<BitSet>());
+            }
+            mentions.clear();
+            hashtags.clear();
+            TweetFeatures.scan(tweet.getText(), mentions, hashtags, null);
+            for (String mention : mentions) {
+                follows.set(users.id(mention));
             }
-            
-            // add co-hashtaggers to predicted follows
-            for (String hashtag : hashtags.keySet()) {
-                Set<String> hashtagUsers = hashtags.get(hashtag);
-                if (hashtags.get(hashtag).contains(username)) {
-                    follows.addAll(hashtagUsers);
+            for (String hashtag : hashtags) {
+                BitSet hashtagAuthors = hashtagUsers.get(hashtag);
+                if (hashtagAuthors == null) {
+                    hashtagAuthors = new BitSet();
+                    hashtagUsers.put(hashtag, hashtagAuthors);
+                }
+                if (!hashtagAuthors.get(author)) {
+                    hashtagAuthors.set(author);
+                    hashtagsUsed.get(author).add(hashtagAuthors);
                 }
             }
-            
-            // user can't follow self
-            follows.remove(username);
-            network.put(username, follows);
         }
-
+        // an author follows the other users of each hashtag they use
+        for (Map.Entry<Integer, BitSet> entry : network.entrySet()) {
+            BitSet follows = entry.getValue();
+            for (BitSet hashtagAuthors : hashtagsUsed.get(entry.getKey())) {
+                follows.or(hashtagAuthors);
+            }
+            follows.clear(entry.getKey());
+        }
         return network;
     }
 
@@ -113,6 +163,166 @@ public class SocialNetwork {
 
     }
 
+    /**
+     * Same as {@link #influencers(Map)}, for a social network of user ids.
+     * 
+     * @param followsGraph
+     *            a social network of user ids, as returned by
+     *            guessFollowsGraph(tweets, users)
+     * @param users
+     *            registry of the ids in followsGraph
+     * @return the ids of all distinct users in followsGraph, in descending
+     *         order of follower count, ties in alphabetical order of username
+     *         (as ordered by InfluenceSort)
+     */
+    public static int[] influencers(Map<Integer, BitSet> followsGraph, UserRegistry users) {
+        BitSet present = new BitSet();
+        int[] counts = new int[users.size()];
+        for (Map.Entry<Integer, BitSet> entry : followsGraph.entrySet()) {
+            present.set(entry.getKey());
+            BitSet follows = entry.getValue();
+            present.or(follows);
+            for (int user = follows.nextSetBit(0); user >= 0; user = follows.nextSetBit(user + 1)) {
+                counts[user]++;
+            }
+        }
+        // put the users in username order once, then sort (count, rank in that order) packed in longs
+        String[] names = new String[present.cardinality()];
+        int size = 0;
+        for (int user = present.nextSetBit(0); user >= 0; user = present.nextSetBit(user + 1)) {
+            names[size++] = users.username(user);
+        }
+        Arrays.sort(names);
+        long[] ranks = new long[size];
+        int[] byName = new int[size];
+        for (int i = 0; i < size; i++) {
+            byName[i] = users.idIfPresent(names[i]);
+            ranks[i] = rank(counts[byName[i]], i);
+        }
+        Arrays.sort(ranks);
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = byName[(int) ranks[i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Find the people in a compact social network who have the greatest influence,
+     * in the sense that they have the most followers, counting followers in an
+     * int array rather than a map.
+     * 
+     * @param followsGraph
+     *            a social network
+     * @return a list of all distinct Twitter usernames in followsGraph, in
+     *         descending order of follower count, ties in alphabetical order
+     *         (as ordered by InfluenceSort)
+     */
+    public static List<String> influencers(FollowsGraph followsGraph) {
+        int[] counts = followsGraph.followerCounts();
+        long[] ranks = new long[counts.length];
+        for (int user = 0; user < counts.length; user++) {
+            ranks[user] = rank(counts[user], user);
+        }
+        Arrays.sort(ranks);
+        return usernames(followsGraph, ranks, ranks.length);
+    }
+
+    /**
+     * Find the k people in a compact social network who have the most followers,
+     * without sorting everyone: follower counts are kept in an int array, and
+     * the top k are selected with a bounded heap, in O(n log k) time.
+     * 
+     * @param followsGraph
+     *            a social network
+     * @param k
+     *            number of users wanted. Requires k >= 0.
+     * @return the first min(k, number of users) usernames of influencers(followsGraph),
+     *         in the same order
+     */
+    public static List<String> influencers(FollowsGraph followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be nonnegative");
+        }
+        int[] counts = followsGraph.followerCounts();
+        int size = Math.min(k, counts.length);
+        // max-heap of the best ranks so far, so its root is the worst of them
+        long[] heap = new long[size];
+        for (int user = 0; user < counts.length; user++) {
+            long rank = rank(counts[user], user);
+            if (user < size) {
+                heap[user] = rank;
+                siftUp(heap, user);
+            } else if (size > 0 && rank < heap[0]) {
+                heap[0] = rank;
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap);
+        return usernames(followsGraph, heap, size);
+    }
+
+    /**
+     * Same as {@link #influencers(FollowsGraph, int)}, for a social network as
+     * defined above.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            number of users wanted. Requires k >= 0.
+     * @return the first min(k, number of users) usernames of influencers(followsGraph),
+     *         in the same order
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        return influencers(FollowsGraph.fromMap(followsGraph), k);
+    }
+
+    /*
+     * Pack a follower count and user id into a long that sorts ascending by count
+     * descending, then by id. Graph ids are in alphabetical order, so this is
+     * InfluenceSort's order.
+     */
+    private static long rank(int count, int user) {
+        return ((long) (Integer.MAX_VALUE - count) << 32) | user;
+    }
+
+    private static List<String> usernames(FollowsGraph followsGraph, long[] ranks, int size) {
+        List<String> usernames = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            usernames.add(followsGraph.username((int) ranks[i]));
+        }
+        return usernames;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0 && heap[(i - 1) / 2] < heap[i]) {
+            swap(heap, i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private static void siftDown(long[] heap, int i, int size) {
+        while (true) {
+            int largest = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (heap[child] > heap[largest]) {
+                    largest = child;
+                }
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(heap, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(long[] heap, int i, int j) {
+        long tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
     /* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
      * Redistribution of original or derived work requires explicit permission.
      * Don't post any of this code on the web or to a public Github repository.
@@ -0,0 +1,506 @@
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * TrendingHashtags counts hashtags over a sliding time window of a stream of
+ * tweets, to answer queries like "the top 10 hashtags of the last 15 minutes"
+ * without keeping the tweets. The window is split into a fixed number of time
+ * buckets, each counting the tweets that use each hashtag (lowercased, as by
+ * {@link Extract#getHashtagUsers(List)}); as the stream moves on, the oldest
+ * buckets expire and their counts are subtracted from the window's total.
+ * Times are resolved to buckets, so a window of 15 minutes in 15 buckets moves
+ * a minute at a time.
+ *
+ * An exact counter keeps a count for every hashtag in the window. A sketched
+ * counter, made by {@link #sketched(Duration, int, double, double, int)},
+ * instead keeps a Count-Min Sketch per bucket, whose estimates never undercount
+ * and overcount by at most epsilon times the number of hashtag uses in the
+ * window with probability 1 - delta, plus a bounded set of heavy-hitter
+ * candidates for top queries, so its memory is fixed however many distinct
+ * hashtags the stream has.
+ *
+ * Tweets may arrive somewhat out of order: a tweet is counted in its own
+ * bucket as long as that bucket is still in the window. A counter is mutable
+ * and not thread-safe.
+ */
+public class TrendingHashtags {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long widthMillis;
+    // ring of buckets: slot s holds the bucket numbered numbers[s], with
+    //   bucket b counting the tweets in [b * widthMillis, (b + 1) * widthMillis) epoch millis
+    private final Counts[] buckets;
+    private final long[] numbers;
+    private final Counts total;
+    // newest bucket number, or NONE before the first tweet
+    private long head = NONE;
+
+    // sketched counters only, else null: hashtag -> estimate when last refreshed
+    private final Map<String, Long> candidates;
+    private final int capacity;
+    // no candidate's estimate is below this
+    private long floor;
+
+    // scratch for one tweet's hashtags
+    private final Set<String> tweetHashtags = new HashSet<String>();
+
+    // rep invariant:
+    //    widthMillis > 0, buckets.length == numbers.length > 0
+    //    if head == NONE, every number is NONE and every count is 0; else the slots hold
+    //      exactly the buckets head - buckets.length + 1 .. head, bucket b in slot
+    //      floorMod(b, buckets.length)
+    //    total is the sum of the buckets
+    //    candidates == null iff the counts are exact; else candidates.size() <= capacity
+    // abstraction function:
+    //    represents, for each hashtag, the number of added tweets in each bucket of the
+    //      window ending with bucket head that use the hashtag, exactly or as estimated
+    //      by the sketches
+    // safety from rep exposure argument:
+    //    all fields are private and never returned; queries return fresh lists
+
+    /**
+     * Make an exact counter.
+     *
+     * @param window length of the window.  Requires window > 0.
+     * @param buckets number of buckets to split the window into.  Requires buckets >= 1,
+     *        and window to be a whole number of milliseconds, at least one per bucket,
+     *        divisible by buckets.
+     */
+    public TrendingHashtags(Duration window, int buckets) {
+        this(window, buckets, null, 0);
+    }
+
+    private TrendingHashtags(Duration window, int buckets, Sketch sketch, int capacity) {
+        if (buckets < 1 || window.isNegative() || window.isZero()
+                || window.toMillis() % buckets != 0 || !window.equals(Duration.ofMillis(window.toMillis()))) {
+            throw new IllegalArgumentException("requires window a positive whole number of milliseconds divisible by buckets");
+        }
+        this.widthMillis = window.toMillis() / buckets;
+        this.buckets = new Counts[buckets];
+        this.numbers = new long[buckets];
+        for (int slot = 0; slot < buckets; slot++) {
+            this.buckets[slot] = sketch == null ? new ExactCounts() : sketch.copy();
+        }
+        Arrays.fill(numbers, NONE);
+        this.total = sketch == null ? new ExactCounts() : sketch;
+        this.candidates = sketch == null ? null : new HashMap<String, Long>();
+        this.capacity = capacity;
+        checkRep();
+    }
+
+    /**
+     * Make a counter with fixed memory, estimating counts with Count-Min Sketches.
+     *
+     * @param window length of the window, as for TrendingHashtags(window, buckets)
+     * @param buckets number of buckets, as for TrendingHashtags(window, buckets)
+     * @param epsilon bound on overcounting, as a fraction of the hashtag uses in the
+     *        window.  Requires 0 < epsilon < 1.
+     * @param delta probability that an estimate exceeds its bound.  Requires 0 < delta < 1.
+     * @param capacity number of hashtags tracked as candidates for top queries, which
+     *        bounds the n that top(n) can answer.  Requires capacity >= 1.
+     * @return a new counter with no tweets
+     */
+    public static TrendingHashtags sketched(Duration window, int buckets, double epsilon, double delta, int capacity) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1) || capacity < 1) {
+            throw new IllegalArgumentException("requires 0 < epsilon < 1, 0 < delta < 1, capacity >= 1");
+        }
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        // round up to a power of two, so a column is a mask of the hash
+        int width = Integer.highestOneBit((int) Math.ceil(Math.E / epsilon) - 1) << 1;
+        return new TrendingHashtags(window, buckets, new Sketch(Math.max(1, depth), Math.max(1, width)), capacity);
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        assert widthMillis > 0;
+        assert buckets.length == numbers.length && buckets.length > 0;
+        assert head == NONE || numbers[slot(head)] == head;
+        assert candidates == null || candidates.size() <= capacity;
+    }
+
+    /**
+     * Count the hashtags of a tweet, each once however often the tweet uses it.
+     * Moves the window forward to end with the tweet's bucket, if it is newer.
+     *
+     * @param tweet tweet to add
+     * @return true if the tweet was counted, false if its bucket had already
+     *         left the window, in which case it is ignored
+     * @throws IllegalArgumentException if its timestamp is outside the range of epoch milliseconds
+     */
+    public boolean add(Tweet tweet) {
+        long bucket = bucket(tweet.getTimestamp());
+        advance(bucket);
+        if (bucket <= head - buckets.length) {
+            return false;
+        }
+        tweetHashtags.clear();
+        TweetFeatures.scan(tweet.getText(), null, tweetHashtags, null);
+        Counts counts = buckets[slot(bucket)];
+        for (String hashtag : tweetHashtags) {
+            counts.add(hashtag, 1);
+            total.add(hashtag, 1);
+            if (candidates != null) {
+                offer(hashtag);
+            }
+        }
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Count the hashtags of some tweets, as by add(tweet) for each in turn.
+     *
+     * @param tweets tweets to add, not modified by this method
+     * @return this counter
+     */
+    public TrendingHashtags addAll(Iterable<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+        return this;
+    }
+
+    /**
+     * Move the window forward to end with the bucket of a time, if it is newer,
+     * expiring the buckets that leave the window, e.g. to query the last 15
+     * minutes of a quiet stream.
+     *
+     * @param now time the window should reach
+     * @throws IllegalArgumentException if now is outside the range of epoch milliseconds
+     */
+    public void advanceTo(Instant now) {
+        advance(bucket(now));
+        checkRep();
+    }
+
+    private void advance(long bucket) {
+        if (head != NONE && bucket <= head) {
+            return;
+        }
+        // at most one pass around the ring
+        long first = head == NONE ? bucket - buckets.length + 1 : Math.max(head + 1, bucket - buckets.length + 1);
+        boolean expired = false;
+        for (long next = first; next <= bucket; next++) {
+            int slot = slot(next);
+            if (numbers[slot] != NONE) {
+                total.subtract(buckets[slot]);
+                buckets[slot].clear();
+                expired = true;
+            }
+            numbers[slot] = next;
+        }
+        head = bucket;
+        if (expired && candidates != null) {
+            refreshCandidates();
+        }
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+
+    private long bucket(Instant time) {
+        try {
+            return Math.floorDiv(time.toEpochMilli(), widthMillis);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("timestamp " + time + " is outside the range of epoch milliseconds");
+        }
+    }
+
+    // track hashtag as a heavy-hitter candidate if it beats the weakest one
+    private void offer(String hashtag) {
+        long estimate = total.count(hashtag);
+        if (candidates.containsKey(hashtag) || candidates.size() < capacity) {
+            candidates.put(hashtag, estimate);
+            return;
+        }
+        if (estimate <= floor) {
+            return;
+        }
+        String weakest = null;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (candidate.getValue() < weakestEstimate) {
+                weakest = candidate.getKey();
+                weakestEstimate = candidate.getValue();
+            }
+        }
+        // the other candidates are at least as strong as the evicted one
+        floor = Math.min(weakestEstimate, estimate);
+        if (estimate > weakestEstimate) {
+            candidates.remove(weakest);
+            candidates.put(hashtag, estimate);
+        }
+    }
+
+    // re-estimate the candidates after buckets expire, dropping those gone from the window
+    private void refreshCandidates() {
+        floor = Long.MAX_VALUE;
+        for (Iterator<Map.Entry<String, Long>> it = candidates.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> candidate = it.next();
+            long estimate = total.count(candidate.getKey());
+            if (estimate == 0) {
+                it.remove();
+            } else {
+                candidate.setValue(estimate);
+                floor = Math.min(floor, estimate);
+            }
+        }
+        if (candidates.size() < capacity) {
+            floor = 0;
+        }
+    }
+
+    /**
+     * @return the timespan covered by the window, from the start of its oldest bucket
+     *         to the end of its newest; or the timespan of the epoch alone if no tweet
+     *         has been added and the window has not been advanced
+     */
+    public Timespan window() {
+        if (head == NONE) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        Instant end = Instant.ofEpochMilli((head + 1) * widthMillis).minusNanos(1);
+        return new Timespan(Instant.ofEpochMilli((head - buckets.length + 1) * widthMillis), end);
+    }
+
+    /**
+     * @param hashtag hashtag without its "#", case-insensitive
+     * @return number of tweets in the window that use hashtag; for a sketched counter,
+     *         an estimate that is never less than the number
+     */
+    public long count(String hashtag) {
+        return total.count(hashtag.toLowerCase());
+    }
+
+    /**
+     * Find the trending hashtags of the window.
+     *
+     * @param n number of hashtags wanted.  Requires n >= 0.
+     * @return the min(n, number of hashtags in the window) lowercased hashtags used by
+     *         the most tweets in the window, in descending order of count, ties in
+     *         alphabetical order; for a sketched counter, the top of its candidates by
+     *         estimated count
+     */
+    public List<String> top(int n) {
+        return top(n, total);
+    }
+
+    /**
+     * Find the trending hashtags of part of the window.
+     *
+     * @param n number of hashtags wanted.  Requires n >= 0.
+     * @param timespan times to count; tweets are counted for every bucket of the window
+     *        that overlaps timespan
+     * @return as for top(n), counting only the tweets in those buckets
+     */
+    public List<String> top(int n, Timespan timespan) {
+        if (head == NONE) {
+            return top(n, total);
+        }
+        long from = Math.max(saturatedBucket(timespan.getStart()), head - buckets.length + 1);
+        long to = Math.min(saturatedBucket(timespan.getEnd()), head);
+        Counts span = total.empty();
+        for (long bucket = from; bucket <= to; bucket++) {
+            span.addAll(buckets[slot(bucket)]);
+        }
+        return top(n, span);
+    }
+
+    private long saturatedBucket(Instant time) {
+        try {
+            return bucket(time);
+        } catch (IllegalArgumentException e) {
+            return time.getEpochSecond() < 0 ? Long.MIN_VALUE / widthMillis - 1 : Long.MAX_VALUE / widthMillis + 1;
+        }
+    }
+
+    private List<String> top(int n, Counts counts) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must be nonnegative");
+        }
+        Comparator<Map.Entry<String, Long>> better = (a, b) -> !a.getValue().equals(b.getValue())
+                ? Long.compare(b.getValue(), a.getValue()) : a.getKey().compareTo(b.getKey());
+        // min-heap of the best n so far, so its root is the worst of them
+        PriorityQueue<Map.Entry<String, Long>> worstFirst =
+                new PriorityQueue<Map.Entry<String, Long>>(Math.max(1, n), better.reversed());
+        Collection<String> hashtags = candidates != null ? candidates.keySet() : ((ExactCounts) counts).hashtags();
+        for (String hashtag : hashtags) {
+            long count = counts.count(hashtag);
+            if (count == 0 || n == 0) {
+                continue;
+            }
+            Map.Entry<String, Long> entry = new AbstractMap.SimpleImmutableEntry<String, Long>(hashtag, count);
+            if (worstFirst.size() < n) {
+                worstFirst.add(entry);
+            } else if (better.compare(entry, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(entry);
+            }
+        }
+        List<Map.Entry<String, Long>> best = new ArrayList<Map.Entry<String, Long>>(worstFirst);
+        best.sort(better);
+        List<String> top = new ArrayList<String>(best.size());
+        for (Map.Entry<String, Long> entry : best) {
+            top.add(entry.getKey());
+        }
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        return "TrendingHashtags(" + buckets.length + " buckets of " + widthMillis + "ms"
+                + (candidates == null ? "" : ", sketched") + ")";
+    }
+
+    /**
+     * Mutable counts of hashtags, exact or estimated.
+     */
+    private interface Counts {
+        /** add delta to the count of hashtag */
+        void add(String hashtag, long delta);
+        /** add every count of other, which has the same kind and shape as this */
+        void addAll(Counts other);
+        /** subtract every count of other, which has the same kind and shape as this */
+        void subtract(Counts other);
+        /** @return count of hashtag */
+        long count(String hashtag);
+        /** set every count to 0 */
+        void clear();
+        /** @return new zero counts of the same kind and shape as this */
+        Counts empty();
+    }
+
+    /**
+     * Exact counts in a hash map, holding only the hashtags with nonzero counts.
+     */
+    private static class ExactCounts implements Counts {
+
+        private final Map<String, Long> counts = new HashMap<String, Long>();
+
+        Collection<String> hashtags() {
+            return counts.keySet();
+        }
+
+        @Override public void add(String hashtag, long delta) {
+            Long count = counts.get(hashtag);
+            long sum = (count == null ? 0 : count) + delta;
+            if (sum == 0) {
+                counts.remove(hashtag);
+            } else {
+                counts.put(hashtag, sum);
+            }
+        }
+
+        @Override public void addAll(Counts other) {
+            for (Map.Entry<String, Long> entry : ((ExactCounts) other).counts.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override public void subtract(Counts other) {
+            for (Map.Entry<String, Long> entry : ((ExactCounts) other).counts.entrySet()) {
+                add(entry.getKey(), -entry.getValue());
+            }
+        }
+
+        @Override public long count(String hashtag) {
+            Long count = counts.get(hashtag);
+            return count == null ? 0 : count;
+        }
+
+        @Override public void clear() {
+            counts.clear();
+        }
+
+        @Override public Counts empty() {
+            return new ExactCounts();
+        }
+    }
+
+    /**
+     * Count-Min Sketch: depth rows of width counters, each hashtag counted in one
+     * counter per row, chosen by an independent hash; its count is estimated by the
+     * least of its counters.
+     */
+    private static class Sketch implements Counts {
+
+        private final int depth, width;
+        private final long[] cells;
+
+        Sketch(int depth, int width) {
+            this.depth = depth;
+            this.width = width;
+            this.cells = new long[depth * width];
+        }
+
+        Sketch copy() {
+            return new Sketch(depth, width);
+        }
+
+        // index of hashtag's counter in row
+        private int cell(String hashtag, int row) {
+            // FNV-1a over the characters from a per-row seed, then the murmur3 finalizer, so
+            //   rows hash independently, unlike rows derived from one 32-bit hashCode
+            long h = 0xCBF29CE484222325L ^ ((row + 1) * 0x9E3779B97F4A7C15L);
+            for (int i = 0; i < hashtag.length(); i++) {
+                h = (h ^ hashtag.charAt(i)) * 0x100000001B3L;
+            }
+            h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+            h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return row * width + (int) (h & (width - 1));
+        }
+
+        @Override public void add(String hashtag, long delta) {
+            for (int row = 0; row < depth; row++) {
+                cells[cell(hashtag, row)] += delta;
+            }
+        }
+
+        @Override public void addAll(Counts other) {
+            long[] others = ((Sketch) other).cells;
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] += others[i];
+            }
+        }
+
+        @Override public void subtract(Counts other) {
+            long[] others = ((Sketch) other).cells;
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] -= others[i];
+            }
+        }
+
+        @Override public long count(String hashtag) {
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, cells[cell(hashtag, row)]);
+            }
+            return min;
+        }
+
+        @Override public void clear() {
+            Arrays.fill(cells, 0);
+        }
+
+        @Override public Counts empty() {
+            return copy();
+        }
+    }
+}
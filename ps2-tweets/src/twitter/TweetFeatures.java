@@ -0,0 +1,226 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * TweetFeatures is the mentions, hashtags, and words of one tweet's text,
+ * pulled out in a single hand-written scan instead of with regular expressions.
+ *
+ * A username character is one of the characters [a-zA-z0-9-_], which (since
+ * the range A-z includes them) also takes in [ \ ] ^ _ and `.
+ *   - a mention is "@" followed by a maximal run of username characters, where
+ *     the "@" is not immediately preceded by a username character
+ *   - a hashtag is "#" followed by a maximal run of username characters
+ *   - a word is a maximal run of non-space characters. A line terminator at the
+ *     very end of the text is not part of the last word, just as "$" ignores
+ *     it in the pattern that Filter.containing was first written with.
+ *
+ * All three are folded to lower case. Username characters are all ASCII, so
+ * mentions and hashtags are folded a character at a time; a word with non-ASCII
+ * characters is folded with String.toLowerCase().
+ */
+public class TweetFeatures {
+
+    private final Set<String> mentions;
+    private final Set<String> hashtags;
+    private final Set<String> words;
+
+    // rep invariant:
+    //    mentions, hashtags, and words are unmodifiable and contain no uppercase ASCII letters
+    // abstraction function:
+    //    represents the features of a tweet text whose distinct lowercased mentions,
+    //      hashtags, and words are the elements of mentions, hashtags, and words,
+    //      each in order of first occurrence
+    // safety from rep exposure argument:
+    //    all fields are private and final, and the sets are unmodifiable
+
+    private TweetFeatures(Set<String> mentions, Set<String> hashtags, Set<String> words) {
+        this.mentions = Collections.unmodifiableSet(mentions);
+        this.hashtags = Collections.unmodifiableSet(hashtags);
+        this.words = Collections.unmodifiableSet(words);
+    }
+
+    /**
+     * Extract the features of a tweet text.
+     *
+     * @param text tweet text
+     * @return the mentions, hashtags, and words of text
+     */
+    public static TweetFeatures of(String text) {
+        Set<String> mentions = new LinkedHashSet<String>();
+        Set<String> hashtags = new LinkedHashSet<String>();
+        Set<String> words = new LinkedHashSet<String>();
+        scan(text, mentions, hashtags, words);
+        return new TweetFeatures(mentions, hashtags, words);
+    }
+
+    /**
+     * @return unmodifiable set of the lowercased usernames mentioned in the text,
+     *         in order of first mention
+     */
+    public Set<String> mentions() {
+        return mentions;
+    }
+
+    /**
+     * @return unmodifiable set of the lowercased hashtags in the text, without
+     *         the "#", in order of first use
+     */
+    public Set<String> hashtags() {
+        return hashtags;
+    }
+
+    /**
+     * @return unmodifiable set of the lowercased words of the text, in order of
+     *         first occurrence
+     */
+    public Set<String> words() {
+        return words;
+    }
+
+    @Override
+    public String toString() {
+        return "TweetFeatures(mentions=" + mentions + ", hashtags=" + hashtags + ", words=" + words + ")";
+    }
+
+    /**
+     * Scan a tweet text once, adding each lowercased feature to its collection.
+     * A null collection skips that kind of feature, and no word is made if words is null.
+     *
+     * @param text tweet text
+     * @param mentions collection to add mentions to, or null
+     * @param hashtags collection to add hashtags to, or null
+     * @param words collection to add words to, or null
+     */
+    static void scan(String text, Collection<String> mentions, Collection<String> hashtags,
+            Collection<String> words) {
+        int length = text.length();
+        int end = length - finalLineTerminatorLength(text);
+
+        // folded[i] is text[i] with ASCII uppercase folded, so each feature is one new String
+        char[] folded = new char[length];
+        int wordStart = 0;
+        boolean wordAscii = true;
+        int i = 0;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                addWord(text, folded, wordStart, i, wordAscii, words);
+                wordStart = i + 1;
+                wordAscii = true;
+                i++;
+                continue;
+            }
+            folded[i] = fold(c);
+            wordAscii &= c < 0x80;
+            i++;
+            boolean mention = c == '@' && mentions != null && (i == 1 || !isUsernameChar(text.charAt(i - 2)));
+            boolean hashtag = c == '#' && hashtags != null;
+            if ((mention || hashtag) && i < end && isUsernameChar(text.charAt(i))) {
+                int start = i;
+                while (i < end && isUsernameChar(text.charAt(i))) {
+                    folded[i] = fold(text.charAt(i));
+                    i++;
+                }
+                (mention ? mentions : hashtags).add(new String(folded, start, i - start));
+            }
+        }
+        addWord(text, folded, wordStart, end, wordAscii, words);
+    }
+
+    /**
+     * Scan the UTF-8 encoding of a tweet text once, adding each lowercased mention and
+     * hashtag to its collection, as scan does for the text itself. Username characters
+     * are all ASCII, and every byte of a non-ASCII character is at least 0x80, so this
+     * works on the bytes without decoding them.
+     *
+     * @param bytes buffer holding the encoded text; neither its contents nor its position
+     *        are changed
+     * @param from index in bytes of the first byte of the text
+     * @param to index in bytes just past the last byte of the text
+     * @param mentions collection to add mentions to, or null
+     * @param hashtags collection to add hashtags to, or null
+     */
+    static void scanUtf8(ByteBuffer bytes, int from, int to, Collection<String> mentions,
+            Collection<String> hashtags) {
+        // a final line terminator has no username characters, so it needs no special case
+        int i = from;
+        while (i < to) {
+            byte b = bytes.get(i);
+            i++;
+            boolean mention = b == '@' && mentions != null && (i == from + 1 || !isUsernameByte(bytes.get(i - 2)));
+            boolean hashtag = b == '#' && hashtags != null;
+            if ((mention || hashtag) && i < to && isUsernameByte(bytes.get(i))) {
+                int start = i;
+                while (i < to && isUsernameByte(bytes.get(i))) {
+                    i++;
+                }
+                char[] folded = new char[i - start];
+                for (int j = 0; j < folded.length; j++) {
+                    folded[j] = fold((char) bytes.get(start + j));
+                }
+                (mention ? mentions : hashtags).add(new String(folded));
+            }
+        }
+    }
+
+    private static void addWord(String text, char[] folded, int start, int end, boolean ascii,
+            Collection<String> words) {
+        if (words == null || start == end) {
+            return;
+        }
+        words.add(ascii ? new String(folded, start, end - start) : text.substring(start, end).toLowerCase());
+    }
+
+    // a username character is one of [a-zA-z0-9-_]
+    static boolean isUsernameChar(char c) {
+        return (c >= 'A' && c <= 'z') || (c >= '0' && c <= '9') || c == '-';
+    }
+
+    private static boolean isUsernameByte(byte b) {
+        return b >= 0 && isUsernameChar((char) b);
+    }
+
+    private static char fold(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    // length of the line terminator ending text, if any, as matched before "$" in a regex
+    static int finalLineTerminatorLength(String text) {
+        int length = text.length();
+        if (length == 0) {
+            return 0;
+        }
+        char last = text.charAt(length - 1);
+        if (last == '\n') {
+            return length >= 2 && text.charAt(length - 2) == '\r' ? 2 : 1;
+        }
+        return last == '\r' || last == '\u0085' || last == '\u2028' || last == '\u2029' ? 1 : 0;
+    }
+
+    // length in bytes of the line terminator ending the UTF-8 text bytes[from..to), if any,
+    //   as finalLineTerminatorLength(String) for the decoded text
+    static int finalLineTerminatorLength(ByteBuffer bytes, int from, int to) {
+        int length = to - from;
+        if (length == 0) {
+            return 0;
+        }
+        int last = bytes.get(to - 1) & 0xFF;
+        if (last == '\n') {
+            return length >= 2 && bytes.get(to - 2) == '\r' ? 2 : 1;
+        } else if (last == '\r') {
+            return 1;
+        } else if (last == 0x85) {
+            // U+0085 is C2 85
+            return length >= 2 && (bytes.get(to - 2) & 0xFF) == 0xC2 ? 2 : 0;
+        } else if (last == 0xA8 || last == 0xA9) {
+            // U+2028 and U+2029 are E2 80 A8 and E2 80 A9
+            return length >= 3 && (bytes.get(to - 3) & 0xFF) == 0xE2 && (bytes.get(to - 2) & 0xFF) == 0x80 ? 3 : 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,162 @@
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TweetIndex is an immutable inverted index over a list of tweets, mapping each
+ * lowercased word to the positions (ordinals) in the list of the tweets whose
+ * text contains it. Each tweet is tokenized once, by {@link TweetFeatures}, when
+ * the index is built, so a query costs only its posting lists, whatever the
+ * size of the list.
+ */
+public class TweetIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<Tweet> tweets;
+    private final Map<String, int[]> postings;
+
+    // rep invariant:
+    //    every posting list is nonempty and strictly ascending, with every ordinal a valid index of tweets
+    //    i is in postings.get(w) iff w is a word of TweetFeatures.of(tweets.get(i).getText())
+    // abstraction function:
+    //    represents the list of tweets, indexed by the words each one contains
+    // safety from rep exposure argument:
+    //    tweets is an unmodifiable copy, postings is private and its arrays are never returned,
+    //      and Tweet is immutable
+
+    /**
+     * Build an index over a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this method
+     */
+    public TweetIndex(List<Tweet> tweets) {
+        this.tweets = Collections.unmodifiableList(new ArrayList<Tweet>(tweets));
+
+        Map<String, IntList> building = new HashMap<String, IntList>();
+        Set<String> words = new LinkedHashSet<String>();
+        for (int i = 0; i < this.tweets.size(); i++) {
+            words.clear();
+            TweetFeatures.scan(this.tweets.get(i).getText(), null, null, words);
+            for (String word : words) {
+                IntList posting = building.get(word);
+                if (posting == null) {
+                    posting = new IntList();
+                    building.put(word, posting);
+                }
+                posting.add(i);
+            }
+        }
+        postings = new HashMap<String, int[]>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<String, IntList> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        for (int[] posting : postings.values()) {
+            assert posting.length > 0;
+            assert posting[posting.length - 1] < tweets.size();
+        }
+    }
+
+    /**
+     * @return unmodifiable list of the indexed tweets, in the order they were given
+     */
+    public List<Tweet> tweets() {
+        return tweets;
+    }
+
+    /**
+     * @return number of distinct words in the indexed tweets
+     */
+    public int wordCount() {
+        return postings.size();
+    }
+
+    /**
+     * Find the positions of tweets that contain certain words.
+     *
+     * @param words words to search for, as in Filter.containing; case-insensitive
+     * @return positions in tweets() of all and only the tweets whose text includes
+     *         at least one of the words, ascending
+     */
+    public int[] ordinalsContaining(List<String> words) {
+        if (words.size() == 1) {
+            return posting(words.get(0)).clone();
+        }
+        int total = 0;
+        List<int[]> lists = new ArrayList<int[]>(words.size());
+        for (String word : words) {
+            int[] posting = posting(word);
+            if (posting.length > 0) {
+                lists.add(posting);
+                total += posting.length;
+            }
+        }
+        if (lists.size() == 1) {
+            return lists.get(0).clone();
+        }
+        // union: concatenate, sort, and drop duplicates
+        int[] union = new int[total];
+        int size = 0;
+        for (int[] posting : lists) {
+            System.arraycopy(posting, 0, union, size, posting.length);
+            size += posting.length;
+        }
+        Arrays.sort(union);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || union[distinct - 1] != union[i]) {
+                union[distinct++] = union[i];
+            }
+        }
+        return distinct == size ? union : Arrays.copyOf(union, distinct);
+    }
+
+    /**
+     * @param words words to search for, as in Filter.containing; case-insensitive
+     * @return total length of the words' posting lists, an upper bound on the number of
+     *         tweets ordinalsContaining(words) finds, in time linear in the number of words
+     */
+    int postingTotal(List<String> words) {
+        int total = 0;
+        for (String word : words) {
+            total += posting(word).length;
+        }
+        return total;
+    }
+
+    /**
+     * Find tweets that contain certain words.
+     *
+     * @param words words to search for, as in Filter.containing; case-insensitive
+     * @return unmodifiable list of all and only the tweets whose text includes at
+     *         least one of the words, in the same order as in tweets()
+     */
+    public List<Tweet> containing(List<String> words) {
+        return tweetsAt(ordinalsContaining(words));
+    }
+
+    /**
+     * @param ordinals positions in tweets()
+     * @return unmodifiable list whose i-th element is tweets().get(ordinals[i])
+     */
+    List<Tweet> tweetsAt(int[] ordinals) {
+        return new OrdinalList<Tweet>(tweets, ordinals);
+    }
+
+    private int[] posting(String word) {
+        int[] posting = postings.get(word.toLowerCase());
+        return posting == null ? NONE : posting;
+    }
+}
@@ -0,0 +1,302 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * TweetParser is an incremental JSON parser for tweet feeds, as described in
+ * {@link TweetReader}. It holds one buffer of input and one tweet's fields at a
+ * time, and never builds a tree for the whole feed.
+ */
+class TweetParser implements Iterator<Tweet> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long line = 1;
+
+    // feed layout, decided by the first token: inside a top-level array or not
+    private boolean started;
+    private boolean inArray;
+    private boolean finished;
+    private Tweet next;
+
+    // scratch for string values, reused across tweets
+    private final StringBuilder string = new StringBuilder();
+
+    // rep invariant:
+    //    0 <= position <= limit <= buffer.length
+    //    finished implies next == null
+    // abstraction function:
+    //    represents the tweets in the feed after those already returned by next(),
+    //      of which next (if not null) is the first, and the rest are still unparsed in
+    //      buffer[position..limit) followed by the unread remainder of in
+
+    TweetParser(Reader in) {
+        this.in = in;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = parseNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = next;
+        next = null;
+        return tweet;
+    }
+
+    // parse the next tweet, or return null and set finished at the end of the feed
+    private Tweet parseNext() throws IOException {
+        int c = skipWhitespace();
+        if (!started) {
+            started = true;
+            if (c == '[') {
+                inArray = true;
+                position++;
+                c = skipWhitespace();
+                if (c == ']') {
+                    position++;
+                    return end();
+                }
+                return parseTweet();
+            }
+        } else if (inArray) {
+            if (c == ']') {
+                position++;
+                return end();
+            }
+            expect(',');
+            c = skipWhitespace();
+        }
+        if (c == -1) {
+            if (inArray) {
+                throw error("unterminated array");
+            }
+            finished = true;
+            return null;
+        }
+        return parseTweet();
+    }
+
+    // after a top-level array, only whitespace may follow
+    private Tweet end() throws IOException {
+        if (skipWhitespace() != -1) {
+            throw error("unexpected content after the tweet array");
+        }
+        finished = true;
+        return null;
+    }
+
+    private Tweet parseTweet() throws IOException {
+        expect('{');
+        Long id = null;
+        String username = null;
+        String text = null;
+        String timestamp = null;
+        if (skipWhitespace() == '}') {
+            position++;
+        } else {
+            while (true) {
+                skipWhitespace();
+                String field = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                switch (field) {
+                case "id":
+                    id = parseLong();
+                    break;
+                case "username":
+                    username = parseString();
+                    break;
+                case "text":
+                    text = parseString();
+                    break;
+                case "timestamp":
+                    timestamp = parseString();
+                    break;
+                default:
+                    skipValue();
+                }
+                int c = skipWhitespace();
+                if (c != ',' && c != '}') {
+                    throw error("expected ',' or '}' in tweet object");
+                }
+                position++;
+                if (c == '}') {
+                    break;
+                }
+            }
+        }
+        if (id == null || username == null || text == null || timestamp == null) {
+            throw error("tweet requires id, username, text, and timestamp");
+        }
+        try {
+            return new Tweet(id, username, text, Instant.parse(timestamp));
+        } catch (DateTimeParseException e) {
+            throw error("bad timestamp " + timestamp);
+        }
+    }
+
+    private String parseString() throws IOException {
+        expect('"');
+        string.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("unterminated string");
+            }
+            // copy the run of plain characters in one go
+            int start = position;
+            while (position < limit && buffer[position] != '"' && buffer[position] != '\\') {
+                position++;
+            }
+            string.append(buffer, start, position - start);
+            if (position == limit) {
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                return string.toString();
+            }
+            int escape = read();
+            switch (escape) {
+            case '"': case '\\': case '/': string.append((char) escape); break;
+            case 'b': string.append('\b'); break;
+            case 'f': string.append('\f'); break;
+            case 'n': string.append('\n'); break;
+            case 'r': string.append('\r'); break;
+            case 't': string.append('\t'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("bad \\u escape");
+                    }
+                    code = code * 16 + digit;
+                }
+                string.append((char) code);
+                break;
+            default:
+                throw error("bad escape");
+            }
+        }
+    }
+
+    private long parseLong() throws IOException {
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int c = peek(); c >= '0' && c <= '9'; c = peek()) {
+            try {
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            } catch (ArithmeticException e) {
+                throw error("integer out of range");
+            }
+            position++;
+            digits++;
+        }
+        if (digits == 0) {
+            throw error("expected an integer");
+        }
+        return negative ? -value : value;
+    }
+
+    // skip any JSON value, counting nesting so that objects and arrays of any depth are skipped
+    private void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int c = skipWhitespace();
+            if (c == '"') {
+                parseString();
+            } else if (c == '{' || c == '[') {
+                position++;
+                depth++;
+            } else if (c == '}' || c == ']') {
+                position++;
+                depth--;
+            } else if (c == ',' || c == ':') {
+                position++;
+            } else if (c == -1) {
+                throw error("unexpected end of feed");
+            } else {
+                // number, true, false, or null
+                while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                    position++;
+                }
+            }
+        } while (depth > 0);
+    }
+
+    private void expect(char expected) throws IOException {
+        if (skipWhitespace() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    // return the next non-whitespace character without consuming it, or -1 at the end
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == -1 || !Character.isWhitespace(c)) {
+                return c;
+            }
+            if (c == '\n') {
+                line++;
+            }
+            position++;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c == -1) {
+            throw error("unexpected end of feed");
+        }
+        position++;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+
+    private IOException error(String message) {
+        return new IOException("malformed tweet feed at line " + line + ": " + message);
+    }
+}
@@ -0,0 +1,220 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * TweetQuery is an immutable conjunction of the Filter conditions, built up
+ * fluently, for example
+ *
+ *     TweetQuery.by("alyssa").in(timespan).containing(words)
+ *
+ * and run over tweets as a single lazy pass: instead of each Filter step
+ * copying the tweets that pass it into a new list, a query streams the input
+ * once and checks every condition on each tweet, cheapest first. The words of
+ * each containing() are compiled into a {@link WordMatcher} when it is added,
+ * so a query is compiled once and can be reused on any number of inputs.
+ *
+ * Given indexes of the input, a query plans its pass: it asks each index how
+ * many tweets could meet the conditions it covers, starts from the positions
+ * the most selective index finds, and checks the rest of the conditions on
+ * just those tweets.
+ */
+public class TweetQuery {
+
+    private static final TweetQuery ALL = new TweetQuery(
+            Collections.<String>emptyList(), Collections.<Timespan>emptyList(), Collections.<WordMatcher>emptyList());
+
+    private final List<String> authors;
+    private final List<Timespan> timespans;
+    private final List<WordMatcher> matchers;
+
+    // rep invariant:
+    //    authors, timespans, and matchers are unmodifiable
+    // abstraction function:
+    //    represents the condition on a tweet that its author is every one of authors,
+    //      case-insensitively, its timestamp is in every one of timespans, and its text
+    //      includes at least one word of every matcher, as for Filter.containing
+    // safety from rep exposure argument:
+    //    all fields are private and final, the lists are unmodifiable and never returned,
+    //      and String, Timespan, and WordMatcher are immutable
+
+    private TweetQuery(List<String> authors, List<Timespan> timespans, List<WordMatcher> matchers) {
+        this.authors = authors;
+        this.timespans = timespans;
+        this.matchers = matchers;
+    }
+
+    /**
+     * @return the query that every tweet meets
+     */
+    public static TweetQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Start a query for tweets written by a particular user.
+     *
+     * @param username Twitter username, compared case-insensitively as in Filter.writtenBy
+     * @return the query for all and only the tweets whose author is username
+     */
+    public static TweetQuery by(String username) {
+        return ALL.writtenBy(username);
+    }
+
+    /**
+     * @param username Twitter username, compared case-insensitively as in Filter.writtenBy
+     * @return the query for all and only the tweets meeting this query whose author is username
+     */
+    public TweetQuery writtenBy(String username) {
+        return new TweetQuery(append(authors, username), timespans, matchers);
+    }
+
+    /**
+     * @param timespan timespan, including its endpoints as in Filter.inTimespan
+     * @return the query for all and only the tweets meeting this query that were sent
+     *         during the timespan
+     */
+    public TweetQuery in(Timespan timespan) {
+        return new TweetQuery(authors, append(timespans, timespan), matchers);
+    }
+
+    /**
+     * @param words words to search for, as in Filter.containing; not modified by this method
+     * @return the query for all and only the tweets meeting this query whose text includes
+     *         at least one of the words
+     */
+    public TweetQuery containing(List<String> words) {
+        return new TweetQuery(authors, timespans, append(matchers, new WordMatcher(words)));
+    }
+
+    private static <E> List<E> append(List<E> list, E element) {
+        List<E> appended = new ArrayList<E>(list);
+        appended.add(element);
+        return Collections.unmodifiableList(appended);
+    }
+
+    /**
+     * @param tweet tweet
+     * @return true iff tweet meets this query
+     */
+    public boolean test(Tweet tweet) {
+        for (String author : authors) {
+            if (!author.equalsIgnoreCase(tweet.getAuthor())) {
+                return false;
+            }
+        }
+        if (!timespans.isEmpty()) {
+            Instant time = tweet.getTimestamp();
+            for (Timespan timespan : timespans) {
+                if (time.isBefore(timespan.getStart()) || time.isAfter(timespan.getEnd())) {
+                    return false;
+                }
+            }
+        }
+        for (WordMatcher matcher : matchers) {
+            if (!matcher.matches(tweet.getText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Run this query over a list of tweets, in one pass.
+     *
+     * @param tweets a list of tweets with distinct ids, which must not be changed while
+     *        the stream is in use
+     * @return lazy sequential stream of all and only the tweets in the list that meet
+     *         this query, in the same order as in the list
+     */
+    public Stream<Tweet> stream(List<Tweet> tweets) {
+        return tweets.stream().filter(this::test);
+    }
+
+    /**
+     * Run this query over indexed tweets, starting from the index that narrows it down most.
+     * The indexes given must be of the same tweets in the same order: an AuthorIndex and
+     * TweetIndex built from a list, and a TweetTimeIndex to which its tweets were added in
+     * list order.
+     *
+     * @param byAuthor author index of the tweets, or null
+     * @param byTime time index of the tweets, or null
+     * @param byWord word index of the tweets, or null
+     * @return lazy sequential stream of all and only the indexed tweets that meet this
+     *         query, in the same order as the indexed list. A later add to byTime
+     *         invalidates the stream.
+     * @throws IllegalArgumentException if every index is null, or they index different
+     *         numbers of tweets
+     */
+    public Stream<Tweet> stream(AuthorIndex byAuthor, TweetTimeIndex byTime, TweetIndex byWord) {
+        List<Tweet> tweets = byAuthor != null ? byAuthor.tweets()
+                : byWord != null ? byWord.tweets()
+                : byTime != null ? byTime.tweets()
+                : null;
+        if (tweets == null) {
+            throw new IllegalArgumentException("no index");
+        }
+        if ((byAuthor != null && byAuthor.tweets().size() != tweets.size())
+                || (byTime != null && byTime.size() != tweets.size())
+                || (byWord != null && byWord.tweets().size() != tweets.size())) {
+            throw new IllegalArgumentException("indexes of different numbers of tweets");
+        }
+        int[] candidates = candidates(byAuthor, byTime, byWord, tweets.size());
+        if (candidates == null) {
+            return stream(tweets);
+        }
+        return IntStream.of(candidates).mapToObj(tweets::get).filter(this::test);
+    }
+
+    // ascending positions of the fewest tweets an index says can meet this query, or null
+    //   if no index narrows it down
+    private int[] candidates(AuthorIndex byAuthor, TweetTimeIndex byTime, TweetIndex byWord, int size) {
+        int best = size;
+        Object condition = null;
+        if (byAuthor != null) {
+            for (String author : authors) {
+                int count = byAuthor.tweetCount(author);
+                if (count < best) {
+                    best = count;
+                    condition = author;
+                }
+            }
+        }
+        if (byTime != null) {
+            for (Timespan timespan : timespans) {
+                int count = byTime.countInTimespan(timespan);
+                if (count < best) {
+                    best = count;
+                    condition = timespan;
+                }
+            }
+        }
+        if (byWord != null) {
+            for (WordMatcher matcher : matchers) {
+                int count = byWord.postingTotal(matcher.words());
+                if (count < best) {
+                    best = count;
+                    condition = matcher;
+                }
+            }
+        }
+        if (condition instanceof String) {
+            return byAuthor.ordinals((String) condition);
+        } else if (condition instanceof Timespan) {
+            return byTime.ordinalsInTimespan((Timespan) condition);
+        } else if (condition instanceof WordMatcher) {
+            return byWord.ordinalsContaining(((WordMatcher) condition).words());
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "TweetQuery(by=" + authors + ", in=" + timespans + ", containing=" + matchers + ")";
+    }
+}
@@ -0,0 +1,116 @@
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read tweets from files or from a web server. Uses a simplified representation
+ * for tweets (with fewer fields than the Twitter API).
+ *
+ * A tweet feed is UTF-8 JSON, either one array of tweet objects or a sequence
+ * of tweet objects (one per line, as in JSON Lines). Each tweet object has the
+ * fields "id" (number), "username" (string), "text" (string), and "timestamp"
+ * (ISO-8601 string, as parsed by Instant.parse); other fields are ignored.
+ *
+ * The stream and iterator methods parse tweets one at a time as they are
+ * consumed, so a feed of any size can be processed in constant memory.
+ */
+public class TweetReader {
+
+    /**
+     * Get a list of tweets from a web server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a list of tweets retrieved from the server.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static List<Tweet> readTweetsFromWeb(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            return readTweets(in);
+        }
+    }
+
+    /**
+     * Read every tweet in a feed into a list.
+     *
+     * @param in tweet feed, read to the end but not closed by this method
+     * @return the tweets in the feed, in feed order
+     * @throws IOException if the feed can't be read or is not a valid tweet feed
+     */
+    public static List<Tweet> readTweets(InputStream in) throws IOException {
+        List<Tweet> tweets = new ArrayList<Tweet>();
+        try {
+            Iterator<Tweet> it = iterateTweets(in);
+            while (it.hasNext()) {
+                tweets.add(it.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return tweets;
+    }
+
+    /**
+     * Parse a feed lazily, one tweet per call to next().
+     *
+     * @param in tweet feed, not closed by the iterator
+     * @return iterator over the tweets in the feed, in feed order. Its methods throw
+     *         UncheckedIOException if the feed can't be read or is not a valid tweet feed.
+     */
+    public static Iterator<Tweet> iterateTweets(InputStream in) {
+        return new TweetParser(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a feed lazily as a sequential stream.
+     *
+     * @param in tweet feed, closed when the stream is closed
+     * @return stream of the tweets in the feed, in feed order. Its operations throw
+     *         UncheckedIOException if the feed can't be read or is not a valid tweet feed.
+     */
+    public static Stream<Tweet> streamTweets(InputStream in) {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        Spliterator<Tweet> tweets = Spliterators.spliteratorUnknownSize(new TweetParser(reader),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(tweets, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Parse a feed file lazily as a sequential stream.
+     *
+     * @param file path to a tweet feed
+     * @return stream of the tweets in the file, in file order, which must be closed
+     *         to release the file. Its operations throw UncheckedIOException if the
+     *         file can't be read or is not a valid tweet feed.
+     * @throws IOException if the file can't be opened
+     */
+    public static Stream<Tweet> streamTweets(Path file) throws IOException {
+        return streamTweets(Files.newInputStream(file));
+    }
+
+    /* Copyright (c) 2016 MIT 6.005 course staff, all rights reserved.
+     * Redistribution of original or derived work requires explicit permission.
+     * Don't post any of this code on the web or to a public Github repository.
+     */
+}
@@ -0,0 +1,400 @@
+package twitter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TweetStore is an immutable, memory-mapped, column-oriented file of tweets.
+ * Opening a store only maps the file, and its filters run over the mapped
+ * columns, so no Tweet, String, or Instant is made until a tweet is read.
+ *
+ * File layout (big-endian):
+ *     header:      magic, version, count n, author count m (ints); text bytes, author bytes (longs)
+ *     ids:         long[n]
+ *     timestamps:  long[n], epoch milliseconds
+ *     text starts: long[n+1], offsets into the text blob; tweet i is text[start[i]..start[i+1])
+ *     authors:     int[n], indexes into the author dictionary
+ *     author starts: int[m+1], offsets into the author blob
+ *     text blob:   UTF-8 tweet texts, concatenated
+ *     author blob: UTF-8 author dictionary, each distinct author spelling once
+ *
+ * Timestamps are stored to the millisecond, so a tweet read back from a store
+ * has its timestamp truncated to milliseconds.
+ */
+public class TweetStore {
+
+    private static final int MAGIC = 0x54574554; // "TWET"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4 + 2 * 8;
+
+    // a tweet's text never crosses out of the mapped text chunk it starts in
+    private static final int MAX_TEXT_BYTES = 1 << 16;
+
+    private final int size;
+    private final Column ids;
+    private final Column timestamps;
+    private final Column textStarts;
+    private final Column authorIds;
+    private final Chunks text;
+    private final String[] authors;
+    private final Map<String, int[]> authorsByName;
+
+    // rep invariant:
+    //    ids, timestamps, and authorIds have size entries, textStarts has size+1,
+    //      ascending from 0
+    //    every authorIds entry indexes authors
+    //    authorsByName maps each lowercased author to the indexes of all its spellings in authors
+    // abstraction function:
+    //    represents the list of tweets whose i-th tweet has id ids[i], author authors[authorIds[i]],
+    //      text the UTF-8 bytes text[textStarts[i]..textStarts[i+1]), and timestamp timestamps[i] ms
+    // safety from rep exposure argument:
+    //    all fields are private and final, and the mapped buffers are never returned
+
+    private TweetStore(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a tweet store");
+        }
+        size = header.getInt();
+        int authorCount = header.getInt();
+        long textBytes = header.getLong();
+        long authorBytes = header.getLong();
+
+        long position = HEADER_BYTES;
+        ids = new Column(channel, position, size, Long.BYTES);
+        position += (long) size * Long.BYTES;
+        timestamps = new Column(channel, position, size, Long.BYTES);
+        position += (long) size * Long.BYTES;
+        textStarts = new Column(channel, position, size + 1L, Long.BYTES);
+        position += (size + 1L) * Long.BYTES;
+        authorIds = new Column(channel, position, size, Integer.BYTES);
+        position += (long) size * Integer.BYTES;
+        Column authorStarts = new Column(channel, position, authorCount + 1L, Integer.BYTES);
+        position += (authorCount + 1L) * Integer.BYTES;
+        text = new Chunks(channel, position, textBytes, MAX_TEXT_BYTES);
+        position += textBytes;
+
+        // the dictionary is small, so decode it once
+        Chunks authorBlob = new Chunks(channel, position, authorBytes, 0);
+        authors = new String[authorCount];
+        Map<String, List<Integer>> spellings = new HashMap<String, List<Integer>>();
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = authorBlob.decode(authorStarts.getInt(i), authorStarts.getInt(i + 1));
+            String folded = authors[i].toLowerCase();
+            if (!spellings.containsKey(folded)) {
+                spellings.put(folded, new ArrayList<Integer>());
+            }
+            spellings.get(folded).add(i);
+        }
+        authorsByName = new HashMap<String, int[]>();
+        for (Map.Entry<String, List<Integer>> entry : spellings.entrySet()) {
+            authorsByName.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Open a store file for reading.
+     *
+     * @param file a file written by {@link #write(Path, Iterator)}
+     * @return the store in the file
+     * @throws IOException if the file can't be read or isn't a tweet store
+     */
+    public static TweetStore open(Path file) throws IOException {
+        // the mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TweetStore(channel);
+        }
+    }
+
+    /**
+     * Write tweets to a new store file, streaming them so that only the author
+     * dictionary is held in memory.
+     *
+     * @param file file to create or overwrite
+     * @param tweets tweets to store, in order; each text must be at most 64KB as UTF-8
+     * @return the number of tweets written
+     * @throws IOException if the file can't be written
+     */
+    public static int write(Path file, Iterator<Tweet> tweets) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path[] parts = new Path[5];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = Files.createTempFile(dir, "tweetstore", ".part");
+            }
+            Map<String, Integer> authorIndex = new HashMap<String, Integer>();
+            List<String> authorList = new ArrayList<String>();
+            int count = 0;
+            long textBytes = 0;
+            try (DataOutputStream idOut = newOutput(parts[0]);
+                 DataOutputStream timeOut = newOutput(parts[1]);
+                 DataOutputStream startOut = newOutput(parts[2]);
+                 DataOutputStream authorOut = newOutput(parts[3]);
+                 DataOutputStream textOut = newOutput(parts[4])) {
+                startOut.writeLong(0);
+                while (tweets.hasNext()) {
+                    Tweet tweet = tweets.next();
+                    byte[] bytes = tweet.getText().getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > MAX_TEXT_BYTES) {
+                        throw new IllegalArgumentException("tweet " + tweet.getId() + " text is longer than 64KB");
+                    }
+                    Integer author = authorIndex.get(tweet.getAuthor());
+                    if (author == null) {
+                        author = authorList.size();
+                        authorIndex.put(tweet.getAuthor(), author);
+                        authorList.add(tweet.getAuthor());
+                    }
+                    idOut.writeLong(tweet.getId());
+                    timeOut.writeLong(tweet.getTimestamp().toEpochMilli());
+                    textOut.write(bytes);
+                    textBytes += bytes.length;
+                    startOut.writeLong(textBytes);
+                    authorOut.writeInt(author);
+                    count = Math.addExact(count, 1);
+                }
+            }
+
+            byte[][] authorBytes = new byte[authorList.size()][];
+            long authorTotal = 0;
+            for (int i = 0; i < authorBytes.length; i++) {
+                authorBytes[i] = authorList.get(i).getBytes(StandardCharsets.UTF_8);
+                authorTotal += authorBytes[i].length;
+            }
+
+            try (DataOutputStream out = newOutput(file)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(count);
+                out.writeInt(authorBytes.length);
+                out.writeLong(textBytes);
+                out.writeLong(authorTotal);
+                for (int i = 0; i < 4; i++) {
+                    Files.copy(parts[i], out);
+                }
+                int start = 0;
+                out.writeInt(start);
+                for (byte[] bytes : authorBytes) {
+                    start += bytes.length;
+                    out.writeInt(start);
+                }
+                Files.copy(parts[4], out);
+                for (byte[] bytes : authorBytes) {
+                    out.write(bytes);
+                }
+            }
+            return count;
+        } finally {
+            for (Path part : parts) {
+                if (part != null) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    private static DataOutputStream newOutput(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        return new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    }
+
+    /**
+     * @return number of tweets in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index of a tweet, 0 <= i < size()
+     * @return id of tweet i
+     */
+    public long id(int i) {
+        return ids.getLong(i);
+    }
+
+    /**
+     * @param i index of a tweet, 0 <= i < size()
+     * @return timestamp of tweet i, in milliseconds since the epoch
+     */
+    public long timestampMillis(int i) {
+        return timestamps.getLong(i);
+    }
+
+    /**
+     * @param i index of a tweet, 0 <= i < size()
+     * @return author of tweet i, spelled as when it was written
+     */
+    public String author(int i) {
+        return authors[authorIds.getInt(i)];
+    }
+
+    /**
+     * @param i index of a tweet, 0 <= i < size()
+     * @return text of tweet i, decoded from the mapped file
+     */
+    public String text(int i) {
+        return text.decode(textStarts.getLong(i), textStarts.getLong(i + 1));
+    }
+
+    /**
+     * @param i index of a tweet, 0 <= i < size()
+     * @return tweet i, made from the mapped file
+     */
+    public Tweet tweet(int i) {
+        return new Tweet(id(i), author(i), text(i), Instant.ofEpochMilli(timestampMillis(i)));
+    }
+
+    /**
+     * Find tweets written by a particular user, scanning only the author column.
+     *
+     * @param username Twitter username, compared case-insensitively
+     * @return indexes of all and only the tweets whose author is username, ascending
+     */
+    public int[] writtenBy(String username) {
+        int[] spellings = authorsByName.get(username.toLowerCase());
+        if (spellings == null) {
+            return new int[0];
+        }
+        IntList matches = new IntList();
+        for (int i = 0; i < size; i++) {
+            int author = authorIds.getInt(i);
+            for (int spelling : spellings) {
+                if (author == spelling) {
+                    matches.add(i);
+                    break;
+                }
+            }
+        }
+        return matches.toArray();
+    }
+
+    /**
+     * Find tweets sent during a timespan, scanning only the timestamp column.
+     *
+     * @param timespan timespan, compared at millisecond precision
+     * @return indexes of all and only the tweets sent during the timespan, ascending
+     */
+    public int[] inTimespan(Timespan timespan) {
+        long start = toMillisCeiling(timespan.getStart());
+        long end = toMillisFloor(timespan.getEnd());
+        IntList matches = new IntList();
+        for (int i = 0; i < size; i++) {
+            long time = timestamps.getLong(i);
+            if (time >= start && time <= end) {
+                matches.add(i);
+            }
+        }
+        return matches.toArray();
+    }
+
+    /**
+     * @param indexes indexes of tweets in this store
+     * @return unmodifiable list whose i-th element is tweet(indexes[i]), made only when it is read
+     */
+    public List<Tweet> tweets(int[] indexes) {
+        final int[] copy = indexes.clone();
+        return new AbstractList<Tweet>() {
+            @Override
+            public Tweet get(int i) {
+                return tweet(copy[i]);
+            }
+
+            @Override
+            public int size() {
+                return copy.length;
+            }
+        };
+    }
+
+    // smallest epoch millisecond not before instant, saturating outside the long range
+    private static long toMillisCeiling(Instant instant) {
+        long floor = toMillisFloor(instant);
+        boolean exact = instant.getNano() % 1_000_000 == 0;
+        return exact || floor == Long.MAX_VALUE ? floor : floor + 1;
+    }
+
+    // largest epoch millisecond not after instant, saturating outside the long range
+    private static long toMillisFloor(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1000L), instant.getNano() / 1_000_000);
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A section of fixed-width values, mapped in chunks of at most 1GB since a
+     * single mapping can't exceed 2GB.
+     */
+    private static class Column {
+        private static final int CHUNK_SHIFT = 30;
+
+        private final MappedByteBuffer[] chunks;
+        private final int width;
+
+        Column(FileChannel channel, long position, long count, int width) throws IOException {
+            this.width = width;
+            long bytes = count * width;
+            chunks = new MappedByteBuffer[(int) ((bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start,
+                        Math.min(1L << CHUNK_SHIFT, bytes - start));
+            }
+        }
+
+        long getLong(long index) {
+            long offset = index * width;
+            return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & ((1L << CHUNK_SHIFT) - 1)));
+        }
+
+        int getInt(long index) {
+            long offset = index * width;
+            return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & ((1L << CHUNK_SHIFT) - 1)));
+        }
+    }
+
+    /**
+     * A section of variable-length byte strings, mapped in 1GB chunks that
+     * overlap by the longest string, so every string lies inside the chunk it starts in.
+     */
+    private static class Chunks {
+        private static final int CHUNK_SHIFT = 30;
+
+        private final MappedByteBuffer[] chunks;
+
+        Chunks(FileChannel channel, long position, long bytes, int overlap) throws IOException {
+            chunks = new MappedByteBuffer[(int) Math.max(1, (bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long length = Math.max(0, Math.min((1L << CHUNK_SHIFT) + overlap, bytes - start));
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start, length);
+            }
+        }
+
+        String decode(long start, long end) {
+            ByteBuffer chunk = chunks[(int) (start >>> CHUNK_SHIFT)].duplicate();
+            int from = (int) (start & ((1L << CHUNK_SHIFT) - 1));
+            byte[] bytes = new byte[(int) (end - start)];
+            chunk.position(from);
+            chunk.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
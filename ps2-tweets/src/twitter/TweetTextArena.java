@@ -0,0 +1,235 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TweetTextArena is an append-only store of tweet texts held off the Java
+ * heap, as UTF-8 in direct ByteBuffers, so the garbage collector never traces
+ * or copies them however many there are. Each text gets a dense int handle,
+ * 0..size()-1, in order of addition.
+ *
+ * The arena scans texts where they lie, with the semantics of Extract and
+ * Filter.containing: mentions and hashtags are found and folded byte by byte,
+ * since username characters are ASCII, and words are matched by a
+ * {@link WordMatcher} walking the bytes, decoding only words with non-ASCII
+ * characters. No String is made for a text unless it is read with text(i).
+ *
+ * Texts are encoded as String.getBytes does, so an unpaired surrogate reads
+ * back as "?". A text may be at most 64KB once encoded. Direct buffers are
+ * freed only when the arena is garbage collected. This class is not
+ * thread-safe.
+ */
+public class TweetTextArena {
+
+    // longest encoded text, so a text fits in the length bits of its location
+    private static final int MAX_TEXT_BYTES = 1 << 16;
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 24;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    // locations per chunk of the location index
+    private static final int LOCATION_CHUNK_SHIFT = 17;
+
+    // a location packs chunk << 47 | offset << 17 | length
+    private static final int OFFSET_SHIFT = 17;
+    private static final int CHUNK_SHIFT = 47;
+    private static final long LENGTH_MASK = (1L << OFFSET_SHIFT) - 1;
+    private static final long OFFSET_MASK = (1L << (CHUNK_SHIFT - OFFSET_SHIFT)) - 1;
+
+    private final int chunkBytes;
+    // text chunks, each filled from position 0 up to its position
+    private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    // location of each text, in chunks of 1 << LOCATION_CHUNK_SHIFT longs
+    private final List<ByteBuffer> locations = new ArrayList<ByteBuffer>();
+    private int size;
+    private long bytes;
+
+    // rep invariant:
+    //    0 <= size, and locations holds at least size entries
+    //    the location of each text i < size names a chunk c in chunks and a range
+    //      [offset, offset + length) within chunks.get(c).position(), which holds its UTF-8
+    //    bytes is the sum of the lengths of texts 0..size-1
+    //    MAX_TEXT_BYTES <= chunkBytes <= MAX_CHUNK_BYTES
+    // abstraction function:
+    //    represents the sequence of texts whose i-th is the UTF-8 decoding of its range
+    // safety from rep exposure argument:
+    //    all fields are private; the buffers are never returned, and scanners get only
+    //      absolute reads of them
+
+    /**
+     * Make an empty arena that allocates off-heap memory 16MB at a time.
+     */
+    public TweetTextArena() {
+        this(DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Make an empty arena.
+     *
+     * @param chunkBytes bytes of off-heap memory to allocate at a time
+     * @throws IllegalArgumentException unless 64KB <= chunkBytes <= 1GB
+     */
+    public TweetTextArena(int chunkBytes) {
+        if (chunkBytes < MAX_TEXT_BYTES || chunkBytes > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("chunk size must be between 64KB and 1GB: " + chunkBytes);
+        }
+        this.chunkBytes = chunkBytes;
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        assert size >= 0 && (long) locations.size() << LOCATION_CHUNK_SHIFT >= size;
+        assert chunkBytes >= MAX_TEXT_BYTES && chunkBytes <= MAX_CHUNK_BYTES;
+    }
+
+    /**
+     * Add a text to the arena.
+     *
+     * @param text tweet text
+     * @return handle of the text, equal to size() before the call
+     * @throws IllegalArgumentException if text is longer than 64KB in UTF-8
+     */
+    public int add(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("text is longer than 64KB");
+        }
+        ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.remaining() < encoded.length) {
+            chunk = ByteBuffer.allocateDirect(chunkBytes);
+            chunks.add(chunk);
+        }
+        long location = (long) (chunks.size() - 1) << CHUNK_SHIFT
+                | (long) chunk.position() << OFFSET_SHIFT
+                | encoded.length;
+        chunk.put(encoded);
+
+        int slot = size & ((1 << LOCATION_CHUNK_SHIFT) - 1);
+        if (slot == 0) {
+            locations.add(ByteBuffer.allocateDirect(8 << LOCATION_CHUNK_SHIFT));
+        }
+        locations.get(size >>> LOCATION_CHUNK_SHIFT).putLong(slot * 8, location);
+        bytes += encoded.length;
+        checkRep();
+        return size++;
+    }
+
+    /**
+     * @return number of texts in the arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return total length in bytes of the UTF-8 texts in the arena
+     */
+    public long textBytes() {
+        return bytes;
+    }
+
+    /**
+     * @param i handle of a text, 0 <= i < size()
+     * @return length in bytes of text i in UTF-8
+     */
+    public int byteLength(int i) {
+        return (int) (location(i) & LENGTH_MASK);
+    }
+
+    /**
+     * @param i handle of a text, 0 <= i < size()
+     * @return text i, decoded from the arena
+     */
+    public String text(int i) {
+        long location = location(i);
+        ByteBuffer chunk = chunk(location);
+        int from = from(location);
+        byte[] encoded = new byte[(int) (location & LENGTH_MASK)];
+        for (int j = 0; j < encoded.length; j++) {
+            encoded[j] = chunk.get(from + j);
+        }
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Scan text i once, adding each lowercased mention and hashtag to its collection,
+     * as TweetFeatures does for the decoded text.
+     *
+     * @param i handle of a text, 0 <= i < size()
+     * @param mentions collection to add mentions to, or null
+     * @param hashtags collection to add hashtags to, or null
+     */
+    public void scan(int i, Collection<String> mentions, Collection<String> hashtags) {
+        long location = location(i);
+        int from = from(location);
+        TweetFeatures.scanUtf8(chunk(location), from, from + (int) (location & LENGTH_MASK), mentions, hashtags);
+    }
+
+    /**
+     * @param i handle of a text, 0 <= i < size()
+     * @param words compiled words to search for
+     * @return true iff text i includes at least one of the words, as words.matches(text(i))
+     */
+    public boolean contains(int i, WordMatcher words) {
+        long location = location(i);
+        int from = from(location);
+        return words.matchesUtf8(chunk(location), from, from + (int) (location & LENGTH_MASK));
+    }
+
+    /**
+     * Find texts that contain certain words, as Filter.containing does.
+     *
+     * @param words words to search for, as in Filter.containing; case-insensitive
+     * @return handles of all and only the texts that include at least one of the words,
+     *         ascending
+     */
+    public int[] containing(List<String> words) {
+        WordMatcher matcher = new WordMatcher(words);
+        IntList found = new IntList();
+        for (int i = 0; i < size; i++) {
+            if (contains(i, matcher)) {
+                found.add(i);
+            }
+        }
+        return found.toArray();
+    }
+
+    /**
+     * Get usernames mentioned in the texts, as Extract.getMentionedUsers does for tweets.
+     *
+     * @return the set of lowercased usernames mentioned in the texts, in order of
+     *         first mention
+     */
+    public Set<String> mentionedUsers() {
+        Set<String> mentions = new LinkedHashSet<String>();
+        for (int i = 0; i < size; i++) {
+            scan(i, mentions, null);
+        }
+        return mentions;
+    }
+
+    private long location(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("no text with handle " + i);
+        }
+        return locations.get(i >>> LOCATION_CHUNK_SHIFT).getLong((i & ((1 << LOCATION_CHUNK_SHIFT) - 1)) * 8);
+    }
+
+    private ByteBuffer chunk(long location) {
+        return chunks.get((int) (location >>> CHUNK_SHIFT));
+    }
+
+    private static int from(long location) {
+        return (int) ((location >>> OFFSET_SHIFT) & OFFSET_MASK);
+    }
+
+    @Override
+    public String toString() {
+        return "TweetTextArena(" + size + " texts, " + bytes + " bytes in " + chunks.size() + " chunks)";
+    }
+}
@@ -0,0 +1,310 @@
+package twitter;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+/**
+ * TweetTimeIndex is a mutable index of tweets by timestamp. It keeps the
+ * timestamps as epoch nanoseconds in a sorted long[], alongside the positions
+ * (ordinals) of the tweets in the order they were added, so a timespan query
+ * is two binary searches and the overall timespan is known without a scan.
+ *
+ * Adding a tweet at least as new as every indexed tweet is amortized O(1); an
+ * older tweet is inserted in place, shifting the newer entries up, never
+ * re-sorting the index.
+ *
+ * Timestamps must lie within the range of epoch nanoseconds held in a long,
+ * roughly the years 1677 to 2262. This class is not thread-safe.
+ */
+public class TweetTimeIndex {
+
+    private static final Instant MIN_TIME = toInstant(Long.MIN_VALUE);
+    private static final Instant MAX_TIME = toInstant(Long.MAX_VALUE);
+
+    private final List<Tweet> tweets = new ArrayList<Tweet>();
+    private long[] times = new long[16];
+    private int[] ordinals = new int[16];
+    private int version;
+
+    // rep invariant:
+    //    times[0..size) is ascending, where size = tweets.size()
+    //    ordinals[0..size) is a permutation of 0..size-1, ascending among entries with equal times
+    //    times[i] is the epoch-nanosecond timestamp of tweets.get(ordinals[i])
+    // abstraction function:
+    //    represents the list of tweets in the order they were added, with ordinals[0..size)
+    //      listing their positions from oldest to newest
+    // safety from rep exposure argument:
+    //    all fields are private, the arrays are never returned, the returned lists are
+    //      unmodifiable views, and Tweet is immutable
+
+    /**
+     * Make an empty index.
+     */
+    public TweetTimeIndex() {
+    }
+
+    /**
+     * Make an index of a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids, not modified by this method
+     * @throws IllegalArgumentException if a timestamp is outside the range of epoch nanoseconds
+     */
+    public TweetTimeIndex(List<Tweet> tweets) {
+        int size = tweets.size();
+        times = new long[Math.max(16, size)];
+        ordinals = new int[times.length];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            Tweet tweet = tweets.get(i);
+            this.tweets.add(tweet);
+            times[i] = toNanos(tweet.getTimestamp());
+            ordinals[i] = i;
+            sorted &= i == 0 || times[i - 1] <= times[i];
+        }
+        if (!sorted) {
+            // a stable sort keeps equal timestamps in input order
+            sort(times, ordinals, 0, size, new long[size], new int[size]);
+        }
+        checkRep();
+    }
+
+    // assert the rep invariant
+    private void checkRep() {
+        int size = tweets.size();
+        for (int i = 1; i < size; i++) {
+            assert times[i - 1] < times[i] || (times[i - 1] == times[i] && ordinals[i - 1] < ordinals[i]);
+        }
+    }
+
+    /**
+     * Add a tweet to the index, after every tweet already added.
+     *
+     * @param tweet tweet whose id is distinct from every indexed tweet
+     * @return position of tweet among the tweets in the order they were added
+     * @throws IllegalArgumentException if its timestamp is outside the range of epoch nanoseconds
+     */
+    public int add(Tweet tweet) {
+        long time = toNanos(tweet.getTimestamp());
+        int size = tweets.size();
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+        }
+        // after every entry with the same time, so equal timestamps stay in input order
+        int at = size == 0 || times[size - 1] <= time ? size : upperBound(time);
+        System.arraycopy(times, at, times, at + 1, size - at);
+        System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+        times[at] = time;
+        ordinals[at] = size;
+        tweets.add(tweet);
+        version++;
+        return size;
+    }
+
+    /**
+     * @return number of indexed tweets
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return unmodifiable view of the indexed tweets, in the order they were added. The
+     *         view is invalid after a later add, and then throws ConcurrentModificationException.
+     */
+    public List<Tweet> tweets() {
+        return new View(0, tweets.size(), false);
+    }
+
+    /**
+     * Get the time period spanned by the indexed tweets, in constant time.
+     *
+     * @return a minimum-length time interval that contains the timestamp of
+     *         every indexed tweet, or the empty interval at the epoch if there are none,
+     *         as Extract.getTimespan
+     */
+    public Timespan getTimespan() {
+        int size = tweets.size();
+        if (size == 0) {
+            return new Timespan(Instant.EPOCH, Instant.EPOCH);
+        }
+        return new Timespan(toInstant(times[0]), toInstant(times[size - 1]));
+    }
+
+    /**
+     * Find tweets that were sent during a timespan.
+     *
+     * @param timespan timespan
+     * @return unmodifiable view of all and only the indexed tweets sent during the timespan,
+     *         from oldest to newest (in the order added, among equal timestamps). The view is
+     *         invalid after a later add, and then throws ConcurrentModificationException.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        int[] range = range(timespan);
+        return new View(range[0], range[1], true);
+    }
+
+    /**
+     * Find tweets that were sent during a timespan, as Filter.inTimespan does.
+     *
+     * @param timespan timespan
+     * @return all and only the indexed tweets sent during the timespan, in the order they
+     *         were added. The list is unmodifiable.
+     */
+    public List<Tweet> inTimespanInAddedOrder(Timespan timespan) {
+        int[] positions = ordinalsInTimespan(timespan);
+        List<Tweet> inSpan = new ArrayList<Tweet>(positions.length);
+        for (int position : positions) {
+            inSpan.add(tweets.get(position));
+        }
+        return Collections.unmodifiableList(inSpan);
+    }
+
+    /**
+     * @param timespan timespan
+     * @return positions, in the order added, of all and only the indexed tweets sent during
+     *         the timespan, ascending
+     */
+    public int[] ordinalsInTimespan(Timespan timespan) {
+        int[] range = range(timespan);
+        int[] positions = Arrays.copyOfRange(ordinals, range[0], range[1]);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * @param timespan timespan
+     * @return number of indexed tweets sent during the timespan, found by binary search
+     */
+    int countInTimespan(Timespan timespan) {
+        int[] range = range(timespan);
+        return range[1] - range[0];
+    }
+
+    // [from, to) of the entries within timespan, with its bounds saturated to the nanosecond range
+    private int[] range(Timespan timespan) {
+        if (timespan.getStart().isAfter(MAX_TIME) || timespan.getEnd().isBefore(MIN_TIME)) {
+            return new int[] {0, 0};
+        }
+        long start = saturatedNanos(timespan.getStart());
+        long end = saturatedNanos(timespan.getEnd());
+        return new int[] {lowerBound(start), upperBound(end)};
+    }
+
+    // first entry with time >= key
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = tweets.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first entry with time > key
+    private int upperBound(long key) {
+        int low = 0;
+        int high = tweets.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long toNanos(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("timestamp " + instant + " is outside the range of epoch nanoseconds");
+        }
+    }
+
+    private static long saturatedNanos(Instant instant) {
+        try {
+            return toNanos(instant);
+        } catch (IllegalArgumentException e) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static Instant toInstant(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    // stable merge sort of keys[from..to), moving values along with them
+    private static void sort(long[] keys, int[] values, int from, int to, long[] keyScratch, int[] valueScratch) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(keys, values, from, mid, keyScratch, valueScratch);
+        sort(keys, values, mid, to, keyScratch, valueScratch);
+        if (keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        System.arraycopy(keys, from, keyScratch, from, to - from);
+        System.arraycopy(values, from, valueScratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && keyScratch[left] <= keyScratch[right])) {
+                keys[i] = keyScratch[left];
+                values[i] = valueScratch[left++];
+            } else {
+                keys[i] = keyScratch[right];
+                values[i] = valueScratch[right++];
+            }
+        }
+    }
+
+    /**
+     * Unmodifiable view of a contiguous range of the index, either of the time-sorted
+     * entries or of the tweets in the order added.
+     */
+    private class View extends AbstractList<Tweet> {
+        private final int from;
+        private final int to;
+        private final boolean byTime;
+        private final int expectedVersion = version;
+
+        View(int from, int to, boolean byTime) {
+            this.from = from;
+            this.to = to;
+            this.byTime = byTime;
+        }
+
+        @Override
+        public Tweet get(int i) {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException();
+            }
+            if (i < 0 || i >= to - from) {
+                throw new IndexOutOfBoundsException("index " + i + ", size " + (to - from));
+            }
+            return tweets.get(byTime ? ordinals[from + i] : from + i);
+        }
+
+        @Override
+        public int size() {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException();
+            }
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package twitter;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserRegistry interns Twitter usernames: each username is case-folded once,
+ * to a canonical lowercase instance, and given a dense int id, 0..size()-1, in
+ * order of first registration. Every spelling seen is cached, so looking up a
+ * username again, in any case it has been seen in, is a single hash lookup
+ * with no allocation, and code working on ids compares and hashes ints
+ * instead of strings.
+ *
+ * A registry is thread-safe: ids are assigned exactly once, and a username
+ * registered on one thread has the same id on all others. Registries only
+ * grow. {@link #shared()} is one registry for the whole program.
+ */
+public class UserRegistry {
+
+    private static final UserRegistry SHARED = new UserRegistry();
+
+    // every spelling seen, raw or folded -> id of its folded username
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    // id -> canonical folded username; written only while holding this, and published
+    //   by the volatile write of usernames after each new element
+    private volatile String[] usernames = new String[16];
+    // number of ids assigned, guarded by this
+    private int size;
+
+    // rep invariant:
+    //    usernames[0..size) are distinct lowercase strings, and ids maps each of them to its
+    //      index, and every other key s to ids.get(s.toLowerCase())
+    // abstraction function:
+    //    represents the sequence of distinct case-folded usernames usernames[0..size),
+    //      where each username's id is its position
+    // safety from rep exposure argument:
+    //    all fields are private and never returned; Strings are immutable
+    // thread safety argument:
+    //    ids is a thread-safe map; new ids are assigned only while holding this, after
+    //      checking again that the folded username has none, so each gets exactly one;
+    //      a username is written to usernames before its id is put in ids, and readers
+    //      get an id from ids before reading usernames, so they see the username
+
+    /**
+     * Make an empty registry.
+     */
+    public UserRegistry() {
+    }
+
+    /**
+     * @return the registry shared by the whole program
+     */
+    public static UserRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Register a username, if it is new.
+     *
+     * @param username Twitter username, case-insensitive
+     * @return the id of username
+     */
+    public int id(String username) {
+        Integer id = ids.get(username);
+        if (id != null) {
+            return id;
+        }
+        String folded = username.toLowerCase();
+        id = ids.get(folded);
+        if (id == null) {
+            id = register(folded);
+        }
+        // cache this spelling too
+        ids.putIfAbsent(username, id);
+        return id;
+    }
+
+    private synchronized int register(String folded) {
+        Integer id = ids.get(folded);
+        if (id != null) {
+            return id;
+        }
+        String[] array = usernames;
+        if (size == array.length) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = folded;
+        usernames = array;
+        ids.put(folded, size);
+        return size++;
+    }
+
+    /**
+     * Look up a username without registering it.
+     *
+     * @param username Twitter username, case-insensitive
+     * @return the id of username, or -1 if it has not been registered
+     */
+    public int idIfPresent(String username) {
+        Integer id = ids.get(username);
+        if (id == null) {
+            id = ids.get(username.toLowerCase());
+        }
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Register a username, if it is new, and get its canonical instance.
+     *
+     * @param username Twitter username, case-insensitive
+     * @return the lowercased username, the same instance for every spelling
+     */
+    public String canonical(String username) {
+        return username(id(username));
+    }
+
+    /**
+     * @param id id of a registered username, 0 <= id < size()
+     * @return the canonical lowercased username with id
+     */
+    public String username(int id) {
+        String[] array = usernames;
+        if (id < 0 || id >= array.length || array[id] == null) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        return array[id];
+    }
+
+    /**
+     * @return number of distinct usernames registered, so ids are 0..size()-1
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "UserRegistry(" + size() + " users)";
+    }
+}
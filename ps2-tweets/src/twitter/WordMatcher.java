@@ -0,0 +1,260 @@
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * WordMatcher finds which of a fixed list of words occur in a text, with the
+ * semantics of Filter.containing: words are matched whole, bounded by spaces
+ * and the ends of the text (where, as for "$", the end may be taken either
+ * before or after a line terminator at the very end), and case-insensitively.
+ * The words are compiled once into a multi-pattern automaton, a trie of the
+ * lowercased words, and a text is scanned once, a character at a time, so
+ * matching costs time linear in the text however many words there are.
+ *
+ * This is the Aho-Corasick automaton specialized to whole words: a match can
+ * only start at a word boundary, so each space sends the scan back to the root,
+ * and a character with no transition can never lead to a match before the next
+ * space, so it sends the scan to a dead state instead of along a failure link.
+ * Words and text are folded as by {@link TweetFeatures}: ASCII a character at a
+ * time, and a text word with non-ASCII characters with String.toLowerCase().
+ *
+ * A matcher is immutable and thread-safe.
+ */
+public class WordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int DEAD = -1;
+    private static final long EMPTY = -1;
+
+    private final List<String> words;
+    // trie transitions in an open-addressing hash table: node << 16 | char -> child
+    private final long[] keys;
+    private final int[] children;
+    private final int mask;
+    // node -> index in words of the word it spells, or -1
+    private final int[] wordAt;
+
+    // rep invariant:
+    //    words are distinct, lowercase, nonempty, and contain no space
+    //    keys.length == children.length is a power of two, at least twice the number of
+    //      nodes, and mask == keys.length - 1
+    //    the transitions form a trie rooted at ROOT, and wordAt[n] == i iff node n spells words[i]
+    // abstraction function:
+    //    represents a matcher for the set of words
+    // safety from rep exposure argument:
+    //    all fields are private and final; words is unmodifiable, and the arrays are never returned
+
+    /**
+     * Compile a matcher for a list of words.
+     *
+     * @param words words to match, as in Filter.containing: nonempty sequences of
+     *        nonspace characters, case-insensitive; any other string is never found.
+     *        Not modified by this method.
+     */
+    public WordMatcher(List<String> words) {
+        Set<String> distinct = new LinkedHashSet<String>();
+        int chars = 0;
+        for (String word : words) {
+            if (word.isEmpty() || word.indexOf(' ') >= 0) {
+                continue;
+            }
+            String folded = word.toLowerCase();
+            if (distinct.add(folded)) {
+                chars += folded.length();
+            }
+        }
+        this.words = Collections.unmodifiableList(new ArrayList<String>(distinct));
+
+        // at most one node per character, plus the root; keep the table at most half full
+        int capacity = Integer.highestOneBit((chars + 1) * 2) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        children = new int[capacity];
+        mask = capacity - 1;
+        int[] wordAt = new int[chars + 1];
+        Arrays.fill(wordAt, -1);
+        int nodes = 1;
+        for (int i = 0; i < this.words.size(); i++) {
+            String word = this.words.get(i);
+            int node = ROOT;
+            for (int j = 0; j < word.length(); j++) {
+                int child = child(node, word.charAt(j));
+                if (child == DEAD) {
+                    child = nodes++;
+                    put(node, word.charAt(j), child);
+                }
+                node = child;
+            }
+            wordAt[node] = i;
+        }
+        this.wordAt = Arrays.copyOf(wordAt, nodes);
+        checkRep();
+    }
+
+    // assert the cheap part of the rep invariant
+    private void checkRep() {
+        assert keys.length == children.length && Integer.bitCount(keys.length) == 1;
+        assert wordAt.length * 2 <= keys.length;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void put(int node, char c, int child) {
+        long key = ((long) node << 16) | c;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        children[slot] = child;
+    }
+
+    // the child of node on c, or DEAD
+    private int child(int node, char c) {
+        long key = ((long) node << 16) | c;
+        for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return children[slot];
+            }
+        }
+        return DEAD;
+    }
+
+    /**
+     * @return unmodifiable list of the distinct lowercased words this matcher finds,
+     *         in order of first appearance in the list it was compiled from
+     */
+    public List<String> words() {
+        return words;
+    }
+
+    /**
+     * @param text text to search
+     * @return true iff text includes at least one of the words, as for Filter.containing
+     */
+    public boolean matches(String text) {
+        return scan(text, null);
+    }
+
+    /**
+     * @param text text to search
+     * @return the lowercased words that text includes, in order of first occurrence
+     */
+    public Set<String> matchedWords(String text) {
+        Set<String> matched = new LinkedHashSet<String>();
+        scan(text, matched);
+        return matched;
+    }
+
+    // scan text, adding matched words to matched, or returning at the first match if it is null
+    private boolean scan(String text, Set<String> matched) {
+        int length = text.length();
+        // the last word is tried both without and with a final line terminator, as "$" matches
+        //   both before and after it
+        int end = length - TweetFeatures.finalLineTerminatorLength(text);
+        int state = ROOT;
+        int wordStart = 0;
+        boolean ascii = true;
+        boolean found = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (c == ' ' || i == end) {
+                if (!ascii) {
+                    state = walk(text.substring(wordStart, i).toLowerCase());
+                }
+                if (state > ROOT && wordAt[state] >= 0) {
+                    if (matched == null) {
+                        return true;
+                    }
+                    matched.add(words.get(wordAt[state]));
+                    found = true;
+                }
+                if (c == ' ') {
+                    state = ROOT;
+                    wordStart = i + 1;
+                    ascii = true;
+                    continue;
+                }
+            }
+            if (c >= 0x80) {
+                ascii = false;
+            } else if (ascii && state != DEAD) {
+                state = child(state, c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Search the UTF-8 encoding of a text, as matches(text) searches the text, without
+     * decoding it: ASCII bytes are folded and matched one at a time, and only a word with
+     * non-ASCII characters is decoded, to fold it as String.toLowerCase() does.
+     *
+     * @param bytes buffer holding the encoded text; neither its contents nor its position
+     *        are changed
+     * @param from index in bytes of the first byte of the text
+     * @param to index in bytes just past the last byte of the text
+     * @return true iff the text includes at least one of the words
+     */
+    boolean matchesUtf8(ByteBuffer bytes, int from, int to) {
+        int end = to - TweetFeatures.finalLineTerminatorLength(bytes, from, to);
+        int state = ROOT;
+        int wordStart = from;
+        boolean ascii = true;
+        for (int i = from; i <= to; i++) {
+            byte b = i < to ? bytes.get(i) : (byte) ' ';
+            if (b == ' ' || i == end) {
+                if (!ascii) {
+                    state = walk(decode(bytes, wordStart, i).toLowerCase());
+                }
+                if (state > ROOT && wordAt[state] >= 0) {
+                    return true;
+                }
+                if (b == ' ') {
+                    state = ROOT;
+                    wordStart = i + 1;
+                    ascii = true;
+                    continue;
+                }
+            }
+            if (b < 0) {
+                ascii = false;
+            } else if (ascii && state != DEAD) {
+                state = child(state, b >= 'A' && b <= 'Z' ? (char) (b + ('a' - 'A')) : (char) b);
+            }
+        }
+        return false;
+    }
+
+    private static String decode(ByteBuffer bytes, int from, int to) {
+        byte[] word = new byte[to - from];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = bytes.get(from + i);
+        }
+        return new String(word, StandardCharsets.UTF_8);
+    }
+
+    // the node that folded spells, or DEAD
+    private int walk(String folded) {
+        int state = ROOT;
+        for (int i = 0; i < folded.length() && state != DEAD; i++) {
+            state = child(state, folded.charAt(i));
+        }
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "WordMatcher(" + words.size() + " words, " + wordAt.length + " states)";
+    }
+}